@@ -0,0 +1,53 @@
+package ru.practicum;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * После старта сверяет индексы текущей схемы со списком db.expected-indexes и пишет в лог недостающие.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "db.expected-indexes")
+public class MissingIndexReporter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<String> expectedIndexes;
+
+    public MissingIndexReporter(JdbcTemplate jdbcTemplate,
+                                @Value("${db.expected-indexes}") List<String> expectedIndexes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.expectedIndexes = expectedIndexes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportMissingIndexes() {
+        Set<String> existing;
+        try {
+            existing = new HashSet<>(jdbcTemplate.queryForList(
+                    "SELECT indexname FROM pg_indexes WHERE schemaname = current_schema()", String.class));
+        } catch (DataAccessException e) {
+            log.warn("Не удалось проверить индексы: {}", e.getMessage());
+            return;
+        }
+        List<String> missing = expectedIndexes.stream()
+                .filter(index -> !existing.contains(index))
+                .collect(Collectors.toList());
+        if (missing.isEmpty()) {
+            log.info("Все {} ожидаемых индексов на месте", expectedIndexes.size());
+        } else {
+            log.warn("Отсутствуют индексы: {}", missing);
+        }
+    }
+}
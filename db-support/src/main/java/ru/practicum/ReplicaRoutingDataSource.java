@@ -0,0 +1,106 @@
+package ru.practicum;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отдаёт соединения readOnly-транзакций из реплики, остальные - из основной БД. Задержка реплики
+ * проверяется по расписанию: если она больше допустимой или реплика недоступна, чтение идёт в основную БД.
+ * Должен стоять за LazyConnectionDataSourceProxy, иначе соединение берётся до того, как транзакция
+ * помечена как readOnly.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder {
+
+    private static final String LAG_QUERY = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() " +
+            "THEN 0 ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final DataSource replica;
+    private final long maxLagMillis;
+    private final ScheduledExecutorService checker;
+    private volatile long lagMillis = -1;
+
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    DataSource replica,
+                                    long maxLagMillis,
+                                    long checkIntervalMillis) {
+        this.replica = replica;
+        this.maxLagMillis = maxLagMillis;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.checker.scheduleWithFixedDelay(this::checkReplica, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isReplicaUsable() {
+        long lag = lagMillis;
+        return lag >= 0 && lag <= maxLagMillis;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        Gauge.builder("db.replica.lag", this, dataSource -> dataSource.lagMillis)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("db.replica.active", this, dataSource -> dataSource.isReplicaUsable() ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    public void close() {
+        checker.shutdownNow();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && isReplicaUsable()
+                ? Target.REPLICA
+                : Target.PRIMARY;
+    }
+
+    private void checkReplica() {
+        boolean wasUsable = isReplicaUsable();
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+            resultSet.next();
+            lagMillis = Math.round(resultSet.getDouble(1));
+        } catch (SQLException | RuntimeException e) {
+            if (lagMillis >= 0) {
+                log.warn("Реплика БД недоступна, чтение переключено на основную БД: {}", e.getMessage());
+            } else {
+                log.debug("Реплика БД недоступна: {}", e.getMessage());
+            }
+            lagMillis = -1;
+            return;
+        }
+        if (wasUsable && !isReplicaUsable()) {
+            log.warn("Реплика БД отстаёт на {} мс (допустимо {}), чтение переключено на основную БД",
+                    lagMillis, maxLagMillis);
+        } else if (!wasUsable && isReplicaUsable()) {
+            log.info("Чтение переключено на реплику БД, задержка {} мс", lagMillis);
+        }
+    }
+}
@@ -2,8 +2,14 @@ package ru.practicum;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+// Кэш снаружи транзакции: попадание в кэш не открывает транзакцию, а сброс происходит уже после коммита
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
 public class MainService {
 
     public static void main(String[] args) {
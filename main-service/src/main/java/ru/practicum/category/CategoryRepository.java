@@ -1,7 +1,19 @@
 package ru.practicum.category;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.category.dto.CategoryDto;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
+    @Query("select new ru.practicum.category.dto.CategoryDto(c.id, c.name) from Category c order by c.id")
+    List<CategoryDto> findCategoryDtos(Pageable pageable);
+
+    @Query("select new ru.practicum.category.dto.CategoryDto(c.id, c.name) from Category c where c.id = :catId")
+    Optional<CategoryDto> findCategoryDtoById(@Param("catId") Long catId);
 }
@@ -2,11 +2,13 @@ package ru.practicum.category;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.category.dto.CategoryDto;
-import ru.practicum.category.dto.CategoryMapper;
 import ru.practicum.category.dto.NewCategoryDto;
 import ru.practicum.event.Event;
 import ru.practicum.event.EventRepository;
@@ -14,7 +16,6 @@ import ru.practicum.exceptions.CategoryNotFoundException;
 import ru.practicum.exceptions.ForbiddenException;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static ru.practicum.category.dto.CategoryMapper.toCategory;
 import static ru.practicum.category.dto.CategoryMapper.toCategoryDto;
@@ -24,32 +25,35 @@ import static ru.practicum.category.dto.CategoryMapper.toCategoryDto;
 @Slf4j
 public class CategoryServiceImpl implements CategoryService {
 
+    static final String CATEGORIES_CACHE = "categories";
+    static final String CATEGORY_PAGES_CACHE = "categoryPages";
+
     private final CategoryRepository categoryRepository;
     private final EventRepository eventRepository;
 
-    @Transactional
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CATEGORY_PAGES_CACHE, key = "#from + ':' + #size")
     @Override
     public List<CategoryDto> getCategories(int from, int size) {
 
         log.info("Получение списка категорий: from = {}, size = {}", from, size);
 
-        return categoryRepository.findAll(PageRequest.of(from / size, size))
-                .stream()
-                .map(CategoryMapper::toCategoryDto)
-                .collect(Collectors.toList());
+        return categoryRepository.findCategoryDtos(PageRequest.of(from / size, size));
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CATEGORIES_CACHE, key = "#catId")
     @Override
     public CategoryDto getCategoryById(long catId) {
 
         log.info("Получение категории по id: cat_id = {}", catId);
 
-        return toCategoryDto(categoryRepository.findById(catId)
-                .orElseThrow(() -> new CategoryNotFoundException(catId)));
+        return categoryRepository.findCategoryDtoById(catId)
+                .orElseThrow(() -> new CategoryNotFoundException(catId));
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CATEGORY_PAGES_CACHE, allEntries = true)
     @Override
     public CategoryDto createCategory(NewCategoryDto newCategoryDto) {
 
@@ -59,6 +63,9 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CATEGORIES_CACHE, key = "#catId"),
+            @CacheEvict(cacheNames = CATEGORY_PAGES_CACHE, allEntries = true)})
     @Override
     public CategoryDto updateCategory(long catId, NewCategoryDto newCategoryDto) {
 
@@ -72,6 +79,9 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CATEGORIES_CACHE, key = "#catId"),
+            @CacheEvict(cacheNames = CATEGORY_PAGES_CACHE, allEntries = true)})
     @Override
     public void deleteCategory(long catId) {
 
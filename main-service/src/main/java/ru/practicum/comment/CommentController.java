@@ -2,6 +2,7 @@ package ru.practicum.comment;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.comment.dto.CommentResponseDto;
@@ -27,11 +28,12 @@ public class CommentController {
     }
 
     @GetMapping("/events/{eventId}/comments")
-    public List<CommentResponseDto> getCommentsByEvent(
+    public ResponseEntity<List<CommentResponseDto>> getCommentsByEvent(
             @PathVariable @Valid @Positive Long eventId,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int from,
             @RequestParam(defaultValue = "10") int size) {
-        return commentService.getCommentsByEvent(eventId, from, size);
+        return commentService.getCommentsByEvent(eventId, cursor, from, size).toResponse();
     }
 
     @GetMapping("/comment/{commentId}")
@@ -1,13 +1,20 @@
 package ru.practicum.comment;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.event.Event;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    List<Comment> findByEvent(Event event, Pageable pageable);
+    @Override
+    @EntityGraph(attributePaths = {"author", "event", "event.category", "event.initiator"})
+    Optional<Comment> findById(Long commentId);
+
+    @EntityGraph(attributePaths = {"author", "event", "event.category", "event.initiator"})
+    List<Comment> findByEventAndIdGreaterThan(Event event, Long afterId, Pageable pageable);
 
 }
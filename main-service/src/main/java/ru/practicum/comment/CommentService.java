@@ -2,14 +2,13 @@ package ru.practicum.comment;
 
 import ru.practicum.comment.dto.CommentResponseDto;
 import ru.practicum.comment.dto.CommentDto;
-
-import java.util.List;
+import ru.practicum.pagination.CursorPage;
 
 public interface CommentService {
 
     CommentResponseDto createComment(Long userId, Long eventId, CommentDto commentDto);
 
-    List<CommentResponseDto> getCommentsByEvent(Long eventId, int from, int size);
+    CursorPage<CommentResponseDto> getCommentsByEvent(Long eventId, String cursor, int from, int size);
 
     CommentResponseDto getCommentById(Long commentId);
 
@@ -2,7 +2,7 @@ package ru.practicum.comment;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.comment.dto.CommentMapper;
@@ -15,6 +15,8 @@ import ru.practicum.exceptions.CommentNotFoundException;
 import ru.practicum.exceptions.EventNotFoundException;
 import ru.practicum.exceptions.ForbiddenException;
 import ru.practicum.exceptions.UserNotFoundException;
+import ru.practicum.pagination.Cursor;
+import ru.practicum.pagination.CursorPage;
 import ru.practicum.user.User;
 import ru.practicum.user.UserRepository;
 
@@ -54,20 +56,23 @@ public class CommentServiceImpl implements CommentService {
     }
 
     @Override
-    @Transactional
-    public List<CommentResponseDto> getCommentsByEvent(Long eventId, int from, int size) {
+    @Transactional(readOnly = true)
+    public CursorPage<CommentResponseDto> getCommentsByEvent(Long eventId, String cursor, int from, int size) {
 
         log.info("получения комментария по событию= {}", eventId);
 
         Event event = eventRepository.findByIdAndState(eventId, EventState.PUBLISHED)
                 .orElseThrow(() -> new EventNotFoundException(eventId));
-        List<Comment> comments = commentRepository.findByEvent(event, PageRequest.of(from / size, size));
+        Cursor after = Cursor.decodeId(cursor);
+        List<Comment> comments = commentRepository.findByEventAndIdGreaterThan(event,
+                after != null ? after.getId() : 0L, Cursor.pageable(after, from, size, Sort.by("id")));
 
-        return comments.stream().map(CommentMapper::toCommentResponseDto).collect(Collectors.toList());
+        return CursorPage.of(comments.stream().map(CommentMapper::toCommentResponseDto).collect(Collectors.toList()),
+                size, comment -> Cursor.ofId(comment.getId()));
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public CommentResponseDto getCommentById(Long commentId) {
 
         log.info("Получение комментария по id= {}", commentId);
@@ -1,9 +1,9 @@
 package ru.practicum.comment.dto;
 
 import lombok.experimental.UtilityClass;
+import ru.practicum.TimeCodec;
 import ru.practicum.comment.Comment;
 
-import java.time.format.DateTimeFormatter;
 
 import static ru.practicum.event.dto.EventMapper.toEventShortDto;
 import static ru.practicum.user.dto.UserMapper.toUserShortDto;
@@ -11,8 +11,6 @@ import static ru.practicum.user.dto.UserMapper.toUserShortDto;
 @UtilityClass
 public class CommentMapper {
 
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
     public static Comment toComment(CommentDto commentDto) {
         return Comment.builder()
                 .text(commentDto.getText())
@@ -26,8 +24,8 @@ public class CommentMapper {
                 .author(toUserShortDto(comment.getAuthor()))
                 .text(comment.getText())
                 .state(comment.getState().toString())
-                .createdOn(comment.getCreatedOn().format(FORMATTER))
-                .updatedOn(comment.getUpdatedOn() != null ? comment.getUpdatedOn().format(FORMATTER) : null)
+                .createdOn(TimeCodec.format(comment.getCreatedOn()))
+                .updatedOn(comment.getUpdatedOn() != null ? TimeCodec.format(comment.getUpdatedOn()) : null)
                 .build();
     }
 
@@ -24,6 +24,7 @@ public class Compilation {
             name = "event_compilation",
             joinColumns = @JoinColumn(name = "compilation_id"),
             inverseJoinColumns = @JoinColumn(name = "event_id"))
+    @ToString.Exclude
     private List<Event> events;
     private boolean pinned;
     @Column(nullable = false, length = 50)
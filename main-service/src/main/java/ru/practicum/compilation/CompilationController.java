@@ -2,6 +2,7 @@ package ru.practicum.compilation;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.compilation.dto.CompilationDto;
@@ -19,11 +20,12 @@ public class CompilationController {
     private final CompilationService compilationService;
 
     @GetMapping("/compilations")
-    public List<CompilationDto> getCompilations(
+    public ResponseEntity<List<CompilationDto>> getCompilations(
             @RequestParam(required = false) Boolean pinned,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int from,
             @RequestParam(defaultValue = "10") int size) {
-        return compilationService.getCompilations(pinned, from, size);
+        return compilationService.getCompilations(pinned, cursor, from, size).toResponse();
     }
 
     @GetMapping("/compilations/{compId}")
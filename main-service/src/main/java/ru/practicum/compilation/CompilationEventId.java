@@ -0,0 +1,11 @@
+package ru.practicum.compilation;
+
+/**
+ * Пара "подборка - событие" из таблицы связей, без загрузки самих событий.
+ */
+public interface CompilationEventId {
+
+    Long getCompilationId();
+
+    Long getEventId();
+}
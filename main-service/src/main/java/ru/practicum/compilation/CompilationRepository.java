@@ -1,10 +1,33 @@
 package ru.practicum.compilation;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface CompilationRepository extends JpaRepository<Compilation, Long> {
-    List<Compilation> findByPinned(Boolean pinned, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = {"events", "events.category", "events.initiator"})
+    Optional<Compilation> findById(Long compilationId);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    Optional<Compilation> findReadOnlyById(Long compilationId);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    List<Compilation> findByPinnedAndIdGreaterThan(Boolean pinned, Long afterId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    List<Compilation> findReadOnlyByIdGreaterThan(Long afterId, Pageable pageable);
+
+    @Query("select c.id as compilationId, e.id as eventId from Compilation c join c.events e " +
+            "where c.id in :compilationIds")
+    List<CompilationEventId> findEventIds(@Param("compilationIds") Collection<Long> compilationIds);
 }
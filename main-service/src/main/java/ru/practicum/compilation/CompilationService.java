@@ -3,12 +3,11 @@ package ru.practicum.compilation;
 import ru.practicum.compilation.dto.CompilationDto;
 import ru.practicum.compilation.dto.NewCompilationDto;
 import ru.practicum.compilation.dto.UpdateCompilationRequestDto;
-
-import java.util.List;
+import ru.practicum.pagination.CursorPage;
 
 public interface CompilationService {
 
-    List<CompilationDto> getCompilations(Boolean pinned, int from, int size);
+    CursorPage<CompilationDto> getCompilations(Boolean pinned, String cursor, int from, int size);
 
     CompilationDto getCompilationById(Long compId);
 
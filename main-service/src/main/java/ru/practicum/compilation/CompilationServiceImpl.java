@@ -2,19 +2,28 @@ package ru.practicum.compilation;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.compilation.dto.CompilationDto;
-import ru.practicum.compilation.dto.CompilationMapper;
 import ru.practicum.compilation.dto.NewCompilationDto;
 import ru.practicum.compilation.dto.UpdateCompilationRequestDto;
 import ru.practicum.event.EventRepository;
+import ru.practicum.event.dto.EventMapper;
+import ru.practicum.event.dto.EventShortDto;
 import ru.practicum.exceptions.CompilationNotFoundException;
 import ru.practicum.exceptions.RequestValidationException;
+import ru.practicum.pagination.Cursor;
+import ru.practicum.pagination.CursorPage;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.compilation.dto.CompilationMapper.toCompilation;
@@ -28,32 +37,35 @@ public class CompilationServiceImpl implements CompilationService {
     private final CompilationRepository compilationRepository;
     private final EventRepository eventRepository;
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
-    public List<CompilationDto> getCompilations(Boolean pinned, int from, int size) {
+    public CursorPage<CompilationDto> getCompilations(Boolean pinned, String cursor, int from, int size) {
 
-        log.info("Получение подборки событий с параметрами: pinned = {}, from = {}, size = {}", pinned, from, size);
+        log.info("Получение подборки событий с параметрами: pinned = {}, cursor = {}, from = {}, size = {}",
+                pinned, cursor, from, size);
 
+        Cursor after = Cursor.decodeId(cursor);
+        long afterId = after != null ? after.getId() : 0L;
+        Pageable pageable = Cursor.pageable(after, from, size, Sort.by("id"));
         List<Compilation> compilations;
 
         if (pinned != null) {
-            compilations = compilationRepository.findByPinned(pinned, PageRequest.of(from / size, size));
+            compilations = compilationRepository.findByPinnedAndIdGreaterThan(pinned, afterId, pageable);
         } else {
-            compilations = compilationRepository.findAll(PageRequest.of(from / size, size)).getContent();
+            compilations = compilationRepository.findReadOnlyByIdGreaterThan(afterId, pageable);
         }
-        return !compilations.isEmpty()
-                ? compilations.stream().map(CompilationMapper::toCompilationDto).collect(Collectors.toList())
-                : Collections.emptyList();
+        return CursorPage.of(!compilations.isEmpty() ? toCompilationDtos(compilations) : Collections.emptyList(),
+                size, compilation -> Cursor.ofId(compilation.getId()));
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
     public CompilationDto getCompilationById(Long id) {
 
         log.info("Получение подборки событий по id = {}", id);
 
-        return toCompilationDto(compilationRepository.findById(id)
-                .orElseThrow(() -> new CompilationNotFoundException(id)));
+        return toCompilationDtos(List.of(compilationRepository.findReadOnlyById(id)
+                .orElseThrow(() -> new CompilationNotFoundException(id)))).get(0);
     }
 
     @Transactional
@@ -105,4 +117,31 @@ public class CompilationServiceImpl implements CompilationService {
         compilationRepository.findById(compId).orElseThrow(() -> new CompilationNotFoundException(compId));
         compilationRepository.deleteById(compId);
     }
+
+    /**
+     * Собирает подборки из проекций: сначала идентификаторы событий всех подборок одним запросом,
+     * затем сами события плоскими строками, без загрузки сущностей Event.
+     */
+    private List<CompilationDto> toCompilationDtos(List<Compilation> compilations) {
+        List<CompilationEventId> links = compilationRepository.findEventIds(compilations.stream()
+                .map(Compilation::getId)
+                .collect(Collectors.toList()));
+        Set<Long> eventIds = links.stream().map(CompilationEventId::getEventId).collect(Collectors.toSet());
+        Map<Long, EventShortDto> eventsById = eventIds.isEmpty() ? Collections.emptyMap()
+                : eventRepository.findShortViewsByIdIn(eventIds).stream()
+                .map(EventMapper::toEventShortDto)
+                .collect(Collectors.toMap(EventShortDto::getId, Function.identity()));
+
+        Map<Long, List<EventShortDto>> eventsByCompilationId = new HashMap<>();
+        for (CompilationEventId link : links) {
+            EventShortDto event = eventsById.get(link.getEventId());
+            if (event != null) {
+                eventsByCompilationId.computeIfAbsent(link.getCompilationId(), id -> new ArrayList<>()).add(event);
+            }
+        }
+        return compilations.stream()
+                .map(compilation -> toCompilationDto(compilation,
+                        eventsByCompilationId.getOrDefault(compilation.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
+    }
 }
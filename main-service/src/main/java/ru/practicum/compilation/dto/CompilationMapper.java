@@ -3,8 +3,10 @@ package ru.practicum.compilation.dto;
 import lombok.experimental.UtilityClass;
 import ru.practicum.compilation.Compilation;
 import ru.practicum.event.dto.EventMapper;
+import ru.practicum.event.dto.EventShortDto;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.stream.Collectors;
 
 @UtilityClass
@@ -23,6 +25,15 @@ public class CompilationMapper {
                 .build();
     }
 
+    public static CompilationDto toCompilationDto(Compilation compilation, List<EventShortDto> events) {
+        return CompilationDto.builder()
+                .id(compilation.getId())
+                .events(events)
+                .pinned(compilation.isPinned())
+                .title(compilation.getTitle())
+                .build();
+    }
+
     public static Compilation toCompilation(NewCompilationDto newCompilationDto) {
         return Compilation.builder()
                 .pinned(newCompilationDto.getPinned())
@@ -19,8 +19,18 @@ import java.util.List;
 @ToString
 @Builder
 @Table(name = "events")
+@NamedEntityGraph(name = Event.SHORT_GRAPH, attributeNodes = {
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode("initiator")})
+@NamedEntityGraph(name = Event.FULL_GRAPH, attributeNodes = {
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode("initiator"),
+        @NamedAttributeNode("location")})
 public class Event {
 
+    public static final String SHORT_GRAPH = "Event.short";
+    public static final String FULL_GRAPH = "Event.full";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -28,15 +38,17 @@ public class Event {
     private String title;
     @Column(nullable = false, length = 2000)
     private String annotation;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
+    @ToString.Exclude
     private Category category;
     @Column(nullable = false, length = 7000)
     private String description;
     @Column(nullable = false, name = "event_date")
     private LocalDateTime eventDate;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "location_id")
+    @ToString.Exclude
     private Location location;
     private boolean paid;
     @Column(name = "participant_limit")
@@ -47,15 +59,20 @@ public class Event {
     private LocalDateTime createdOn;
     @Column(name = "published_on")
     private LocalDateTime publishedOn;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "initiator_id")
+    @ToString.Exclude
     private User initiator;
     @Enumerated(EnumType.STRING)
     private EventState state;
     @ManyToMany(mappedBy = "events")
+    @ToString.Exclude
     private List<Compilation> compilations;
     @OneToMany(mappedBy = "event")
+    @ToString.Exclude
     private List<ParticipationRequest> requests;
-    @Column(columnDefinition = "bigint default 0")
+    @Column(columnDefinition = "bigint default 0", updatable = false)
     private Long views;
+    @Column(name = "confirmed_requests", columnDefinition = "bigint default 0", updatable = false)
+    private long confirmedRequests;
 }
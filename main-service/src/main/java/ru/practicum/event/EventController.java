@@ -2,6 +2,7 @@ package ru.practicum.event;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.event.dto.*;
@@ -27,11 +28,12 @@ public class EventController {
     }
 
     @GetMapping("/users/{userId}/events")
-    public List<EventShortDto> getEvents(
+    public ResponseEntity<List<EventShortDto>> getEvents(
             @PathVariable @Valid @Positive Long userId,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") @PositiveOrZero int from,
             @RequestParam(defaultValue = "10") @Positive int size) {
-        return eventService.getEvents(userId, from, size);
+        return eventService.getEvents(userId, cursor, from, size).toResponse();
     }
 
     @GetMapping("/users/{userId}/events/{eventId}")
@@ -50,15 +52,17 @@ public class EventController {
     }
 
     @GetMapping("/admin/events")
-    public List<EventFullDto> getEventsByAdmin(
+    public ResponseEntity<List<EventFullDto>> getEventsByAdmin(
             @RequestParam(required = false) List<Long> users,
             @RequestParam(required = false) List<String> states,
             @RequestParam(required = false) List<Long> categories,
             @RequestParam(required = false) String rangeStart,
             @RequestParam(required = false) String rangeEnd,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int from,
             @RequestParam(defaultValue = "10") int size) {
-        return eventService.getEventsByAdmin(users, states, categories, rangeStart, rangeEnd, from, size);
+        return eventService.getEventsByAdmin(users, states, categories, rangeStart, rangeEnd, cursor, from, size)
+                .toResponse();
     }
 
     @PatchMapping("/admin/events/{eventId}")
@@ -69,7 +73,7 @@ public class EventController {
     }
 
     @GetMapping("/events")
-    public List<EventShortDto> getPublishedEvents(
+    public ResponseEntity<List<EventShortDto>> getPublishedEvents(
             @RequestParam(required = false) String text,
             @RequestParam(required = false) List<Long> categories,
             @RequestParam(required = false) Boolean paid,
@@ -77,12 +81,13 @@ public class EventController {
             @RequestParam(required = false) String rangeEnd,
             @RequestParam(defaultValue = "false") boolean onlyAvailable,
             @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int from,
             @RequestParam(defaultValue = "10") int size,
             HttpServletRequest request) {
 
         return eventService.getPublishedEvents(text, categories, paid, rangeStart, rangeEnd, onlyAvailable,
-                sort, from, size, request);
+                sort, cursor, from, size, request).toResponse();
     }
 
     @GetMapping("/events/{id}")
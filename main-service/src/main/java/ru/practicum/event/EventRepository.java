@@ -1,52 +1,131 @@
 package ru.practicum.event;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import ru.practicum.event.dto.EventFullView;
+import ru.practicum.event.dto.EventShortView;
+
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface EventRepository extends JpaRepository<Event, Long> {
 
-    List<Event> findByInitiatorId(Long userId, Pageable pageable);
+    String EVENT_DOCUMENT = "to_tsvector('russian', coalesce(e.title, '') || ' ' || coalesce(e.annotation, '') " +
+            "|| ' ' || coalesce(e.description, ''))";
+
+    /**
+     * Продолжение после курсора: (event_date, id) или только id, в зависимости от того, какой ключ сортировки
+     * передан. По (views, id) курсора нет: просмотры меняются между запросами, и строки пропускались бы или
+     * повторялись.
+     */
+    String AFTER_CURSOR = "and (cast(cast(:afterId AS text) AS bigint) is null " +
+            "or (cast(:afterDate AS timestamp) is not null " +
+            "and (e.event_date, e.id) > (cast(:afterDate AS timestamp), cast(cast(:afterId AS text) AS bigint))) " +
+            "or (cast(:afterDate AS timestamp) is null and e.id > cast(cast(:afterId AS text) AS bigint)))";
+
+    @Override
+    @EntityGraph(Event.FULL_GRAPH)
+    Optional<Event> findById(Long eventId);
+
+    @EntityGraph(Event.SHORT_GRAPH)
+    List<Event> findByInitiatorIdAndIdGreaterThan(Long userId, Long afterId, Pageable pageable);
 
     List<Event> findByIdAndInitiatorId(Long eventId, Long userId);
 
-    List<Event> findByIdIn(List<Long> eventIds);
+    @EntityGraph(Event.SHORT_GRAPH)
+    List<Event> findByIdIn(Collection<Long> eventIds);
+
+    @EntityGraph(Event.FULL_GRAPH)
+    List<Event> findFullByIdIn(Collection<Long> eventIds);
+
+    @Query("select new ru.practicum.event.dto.EventShortView(e.id, e.title, e.annotation, c.id, c.name, " +
+            "e.eventDate, e.confirmedRequests, i.id, i.name, e.paid, e.views) " +
+            "from Event e join e.category c join e.initiator i where e.id in :eventIds")
+    List<EventShortView> findShortViewsByIdIn(@Param("eventIds") Collection<Long> eventIds);
+
+    @Query("select new ru.practicum.event.dto.EventFullView(e.id, e.title, e.annotation, c.id, c.name, " +
+            "e.description, e.eventDate, l.lat, l.lon, e.paid, e.participantLimit, e.requestModeration, " +
+            "e.confirmedRequests, e.createdOn, e.publishedOn, i.id, i.name, e.state, e.views) " +
+            "from Event e join e.category c join e.location l join e.initiator i " +
+            "where e.id = :eventId and e.state = :state")
+    Optional<EventFullView> findFullViewByIdAndState(@Param("eventId") Long eventId,
+                                                     @Param("state") EventState state);
 
     Event findFirstByCategoryId(Long catId);
 
     @Query(value =
-            "SELECT * FROM Events e WHERE (:userId is null or e.initiator_id IN (cast(cast(:userId AS TEXT) AS BIGINT))) " +
+            "SELECT e.id FROM Events e WHERE (:userId is null or e.initiator_id IN (cast(cast(:userId AS TEXT) AS BIGINT))) " +
             "and (:states is null or e.state IN (cast(:states AS text))) " +
             "and (:categories is null or e.category_id IN (cast(cast(:categories AS TEXT) AS BIGINT))) " +
             "and (cast(:rangeStart AS timestamp) is null or e.event_date >= cast(:rangeStart AS timestamp))" +
-            "and (cast(:rangeEnd AS timestamp) is null or e.event_date < cast(:rangeEnd AS timestamp))",
+            "and (cast(:rangeEnd AS timestamp) is null or e.event_date < cast(:rangeEnd AS timestamp)) " +
+            "and (cast(cast(:afterId AS text) AS bigint) is null or e.id > cast(cast(:afterId AS text) AS bigint))",
             nativeQuery = true)
-    List<Event> findEvents(@Param("userId") List<Long> userId,
-                           @Param("states") List<String> states,
-                           @Param("categories") List<Long> categories,
-                           @Param("rangeStart") LocalDateTime rangeStart,
-                           @Param("rangeEnd") LocalDateTime rangeEnd,
-                           Pageable pageable);
-
-    @Query(value = "SELECT * FROM Events e WHERE (e.state = 'PUBLISHED') " +
+    List<Long> findEventIds(@Param("userId") List<Long> userId,
+                            @Param("states") List<String> states,
+                            @Param("categories") List<Long> categories,
+                            @Param("rangeStart") LocalDateTime rangeStart,
+                            @Param("rangeEnd") LocalDateTime rangeEnd,
+                            @Param("afterId") Long afterId,
+                            Pageable pageable);
+
+    @Query(value = "SELECT e.id FROM Events e WHERE (e.state = 'PUBLISHED') " +
             "and (:text is null or lower(e.annotation) LIKE lower(concat('%',cast(:text AS text),'%')) " +
             "or lower(e.description) LIKE lower(concat('%',cast(:text AS text),'%'))) " +
             "and (:categories is null or e.category_id IN (cast(cast(:categories AS TEXT) AS BIGINT))) " +
             "and (:paid is null or e.paid = cast(cast(:paid AS text) AS BOOLEAN)) " +
             "and (e.event_date >= :rangeStart) " +
-            "and (cast(:rangeEnd AS timestamp) is null or e.event_date < cast(:rangeEnd AS timestamp))",
+            "and (cast(:rangeEnd AS timestamp) is null or e.event_date < cast(:rangeEnd AS timestamp)) " +
+            "and (:onlyAvailable = false or e.participant_limit = 0 or e.confirmed_requests < e.participant_limit) " +
+            AFTER_CURSOR,
             nativeQuery = true)
-    List<Event> findPublishedEvents(@Param("text") String text,
-                                  @Param("categories") List<Long> categories,
-                                  @Param("paid") Boolean paid,
-                                  @Param("rangeStart") LocalDateTime rangeStart,
-                                  @Param("rangeEnd") LocalDateTime rangeEnd,
-                                  Pageable pageable);
+    List<Long> findPublishedEventIds(@Param("text") String text,
+                                     @Param("categories") List<Long> categories,
+                                     @Param("paid") Boolean paid,
+                                     @Param("rangeStart") LocalDateTime rangeStart,
+                                     @Param("rangeEnd") LocalDateTime rangeEnd,
+                                     @Param("onlyAvailable") boolean onlyAvailable,
+                                     @Param("afterDate") LocalDateTime afterDate,
+                                     @Param("afterId") Long afterId,
+                                     Pageable pageable);
 
+    @Query(value = "SELECT e.id FROM (SELECT e.*, ts_rank(" + EVENT_DOCUMENT + ", plainto_tsquery('russian', :text)) AS rank " +
+            "FROM Events e WHERE (e.state = 'PUBLISHED') " +
+            "and " + EVENT_DOCUMENT + " @@ plainto_tsquery('russian', :text) " +
+            "and (:categories is null or e.category_id IN (cast(cast(:categories AS TEXT) AS BIGINT))) " +
+            "and (:paid is null or e.paid = cast(cast(:paid AS text) AS BOOLEAN)) " +
+            "and (e.event_date >= :rangeStart) " +
+            "and (cast(:rangeEnd AS timestamp) is null or e.event_date < cast(:rangeEnd AS timestamp)) " +
+            "and (:onlyAvailable = false or e.participant_limit = 0 or e.confirmed_requests < e.participant_limit) " +
+            AFTER_CURSOR + ") e",
+            nativeQuery = true)
+    List<Long> searchPublishedEventIds(@Param("text") String text,
+                                       @Param("categories") List<Long> categories,
+                                       @Param("paid") Boolean paid,
+                                       @Param("rangeStart") LocalDateTime rangeStart,
+                                       @Param("rangeEnd") LocalDateTime rangeEnd,
+                                       @Param("onlyAvailable") boolean onlyAvailable,
+                                       @Param("afterDate") LocalDateTime afterDate,
+                                       @Param("afterId") Long afterId,
+                                       Pageable pageable);
+
+    @EntityGraph(Event.FULL_GRAPH)
     Optional<Event> findByIdAndState(Long eventId, EventState state);
+
+    @Modifying
+    @Query("update Event e set e.confirmedRequests = e.confirmedRequests + :count " +
+            "where e.id = :eventId and (e.participantLimit = 0 or e.confirmedRequests + :count <= e.participantLimit)")
+    int addConfirmedRequests(@Param("eventId") Long eventId, @Param("count") long count);
+
+    @Modifying
+    @Query("update Event e set e.confirmedRequests = e.confirmedRequests - :count " +
+            "where e.id = :eventId and e.confirmedRequests >= :count")
+    int removeConfirmedRequests(@Param("eventId") Long eventId, @Param("count") long count);
 }
@@ -1,6 +1,7 @@
 package ru.practicum.event;
 
 import ru.practicum.event.dto.*;
+import ru.practicum.pagination.CursorPage;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.List;
@@ -10,7 +11,7 @@ public interface EventService {
 
     EventFullDto createEvent(Long userId, NewEventDto newEventDto);
 
-    List<EventShortDto> getEvents(Long userId, int from, int size);
+    CursorPage<EventShortDto> getEvents(Long userId, String cursor, int from, int size);
 
     EventFullDto getEventById(Long userId, Long eventId);
 
@@ -18,11 +19,12 @@ public interface EventService {
 
     EventFullDto updateEventByAdmin(Long eventId, UpdateEventAdminRequestDto updateEventAdminRequestDto);
 
-    List<EventFullDto> getEventsByAdmin(List<Long> users, List<String> states, List<Long> categories, String rangeStart,
-                                        String rangeEnd, int from, int size);
+    CursorPage<EventFullDto> getEventsByAdmin(List<Long> users, List<String> states, List<Long> categories,
+                                              String rangeStart, String rangeEnd, String cursor, int from, int size);
 
-    List<EventShortDto> getPublishedEvents(String text, List<Long> categories, Boolean paid, String rangeStart, String rangeEnd,
-                                           boolean onlyAvailable, String sort, int from, int size, HttpServletRequest request);
+    CursorPage<EventShortDto> getPublishedEvents(String text, List<Long> categories, Boolean paid, String rangeStart,
+                                                 String rangeEnd, boolean onlyAvailable, String sort, String cursor,
+                                                 int from, int size, HttpServletRequest request);
 
     EventFullDto getPublishedEventById(Long eventId, HttpServletRequest request);
 }
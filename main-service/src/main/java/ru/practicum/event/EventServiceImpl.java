@@ -2,28 +2,32 @@ package ru.practicum.event;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.http.ResponseEntity;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.HitDto;
 import ru.practicum.StatClient;
-import ru.practicum.StatDto;
+import ru.practicum.TimeCodec;
 import ru.practicum.category.Category;
-import ru.practicum.category.CategoryRepository;
+import ru.practicum.category.CategoryService;
 import ru.practicum.event.dto.*;
 import ru.practicum.exceptions.*;
 import ru.practicum.location.Location;
 import ru.practicum.location.LocationRepository;
+import ru.practicum.pagination.Cursor;
+import ru.practicum.pagination.CursorPage;
 import ru.practicum.user.User;
 import ru.practicum.user.UserRepository;
 
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import static ru.practicum.category.dto.CategoryMapper.toCategory;
 import static ru.practicum.event.dto.EventMapper.*;
 import static ru.practicum.location.dto.LocationMapper.toLocation;
 
@@ -34,11 +38,17 @@ public class EventServiceImpl implements EventService {
 
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
-    private final CategoryRepository categoryRepository;
+    private final CategoryService categoryService;
     private final LocationRepository locationRepository;
     private final StatClient statClient;
+    private final EventViewCounter eventViewCounter;
 
-    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    /**
+     * Полнотекстовый поиск по title, annotation и description с русской морфологией и ранжированием.
+     * По умолчанию выключен: text ищется как подстрока annotation или description без учёта регистра.
+     */
+    @Value("${ewm.search.full-text:false}")
+    private boolean fullTextSearch;
 
     @Transactional
     @Override
@@ -47,8 +57,7 @@ public class EventServiceImpl implements EventService {
         log.info("Добавление нового события: user_id = {}, event = {}", userId, newEventDto);
 
         User user = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
-        Category category = categoryRepository.findById(newEventDto.getCategory())
-                .orElseThrow(() -> new CategoryNotFoundException(newEventDto.getCategory()));
+        Category category = toCategory(categoryService.getCategoryById(newEventDto.getCategory()));
 
         Event event = toEvent(newEventDto);
 
@@ -66,22 +75,24 @@ public class EventServiceImpl implements EventService {
         return toEventFullDto(eventRepository.save(event));
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
-    public List<EventShortDto> getEvents(Long userId, int from, int size) {
+    public CursorPage<EventShortDto> getEvents(Long userId, String cursor, int from, int size) {
 
-        log.info("Получение событий, добавленных текущим пользователем: user_id = {}, from = {}, size = {}",
-                userId, from, size);
+        log.info("Получение событий, добавленных текущим пользователем: user_id = {}, cursor = {}, from = {}, size = {}",
+                userId, cursor, from, size);
 
         userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
-        List<Event> events = eventRepository.findByInitiatorId(userId, PageRequest.of(from / size, size));
+        Cursor after = Cursor.decodeId(cursor);
+        List<Event> events = eventRepository.findByInitiatorIdAndIdGreaterThan(userId,
+                after != null ? after.getId() : 0L, Cursor.pageable(after, from, size, Sort.by("id")));
 
-        return events.stream()
+        return CursorPage.of(events.stream()
                 .map(EventMapper::toEventShortDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()), size, event -> Cursor.ofId(event.getId()));
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
     public EventFullDto getEventById(Long userId, Long eventId) {
 
@@ -108,7 +119,7 @@ public class EventServiceImpl implements EventService {
         }
 
         if (updateEventUserRequestDto.getEventDate() != null
-                && LocalDateTime.parse(updateEventUserRequestDto.getEventDate(), formatter)
+                && TimeCodec.parse(updateEventUserRequestDto.getEventDate())
                 .isBefore(LocalDateTime.now().plusHours(2))) {
             throw new RequestValidationException(String.format("Дата начала события не может быть раньше 2 часов от настоящего времени. " +
                             "Новая дата начала: %s",
@@ -124,8 +135,7 @@ public class EventServiceImpl implements EventService {
         }
 
         if (updateEventUserRequestDto.getCategory() != null) {
-            event.setCategory(categoryRepository.findById(updateEventUserRequestDto.getCategory())
-                    .orElseThrow(() -> new CategoryNotFoundException(updateEventUserRequestDto.getCategory())));
+            event.setCategory(toCategory(categoryService.getCategoryById(updateEventUserRequestDto.getCategory())));
         }
 
         if (updateEventUserRequestDto.getDescription() != null) {
@@ -133,8 +143,7 @@ public class EventServiceImpl implements EventService {
         }
 
         if (updateEventUserRequestDto.getEventDate() != null) {
-            event.setEventDate(LocalDateTime.parse(updateEventUserRequestDto.getEventDate(),
-                    DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+            event.setEventDate(TimeCodec.parse(updateEventUserRequestDto.getEventDate()));
         }
 
         if (updateEventUserRequestDto.getLocation() != null) {
@@ -203,7 +212,7 @@ public class EventServiceImpl implements EventService {
         }
 
         if (updateEventAdminRequestDto.getEventDate() != null
-                && LocalDateTime.parse(updateEventAdminRequestDto.getEventDate(), formatter)
+                && TimeCodec.parse(updateEventAdminRequestDto.getEventDate())
                 .isBefore(LocalDateTime.now().plusHours(2))) {
             throw new RequestValidationException(String.format("Дата начала события не может быть раньше 2 часов от текущего времени %s",
                     updateEventAdminRequestDto.getEventDate()));
@@ -218,8 +227,7 @@ public class EventServiceImpl implements EventService {
         }
 
         if (updateEventAdminRequestDto.getCategory() != null) {
-            event.setCategory(categoryRepository.findById(updateEventAdminRequestDto.getCategory())
-                    .orElseThrow(() -> new CategoryNotFoundException(updateEventAdminRequestDto.getCategory())));
+            event.setCategory(toCategory(categoryService.getCategoryById(updateEventAdminRequestDto.getCategory())));
         }
 
         if (updateEventAdminRequestDto.getDescription() != null) {
@@ -227,7 +235,7 @@ public class EventServiceImpl implements EventService {
         }
 
         if (updateEventAdminRequestDto.getEventDate() != null) {
-            event.setEventDate(LocalDateTime.parse(updateEventAdminRequestDto.getEventDate(), formatter));
+            event.setEventDate(TimeCodec.parse(updateEventAdminRequestDto.getEventDate()));
         }
 
         if (updateEventAdminRequestDto.getLocation() != null) {
@@ -257,36 +265,42 @@ public class EventServiceImpl implements EventService {
         return toEventFullDto(eventRepository.save(event));
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
-    public List<EventFullDto> getEventsByAdmin(List<Long> users, List<String> states, List<Long> categories,
-                                               String rangeStart, String rangeEnd, int from, int size) {
+    public CursorPage<EventFullDto> getEventsByAdmin(List<Long> users, List<String> states, List<Long> categories,
+                                                     String rangeStart, String rangeEnd, String cursor, int from,
+                                                     int size) {
 
         log.info("Поиск событий по параметрам: user_ids = {}, states = {}, categories = {}, rangeStart = {}, rangeEnd = {}",
                 users, states, categories, rangeStart, rangeEnd);
 
         validateEventStates(states);
 
-        List<Event> events = eventRepository.findEvents(users,
+        Cursor after = Cursor.decodeId(cursor);
+        List<Long> eventIds = eventRepository.findEventIds(users,
                 states, categories,
-                rangeStart != null ? LocalDateTime.parse(rangeStart, formatter) : null,
-                rangeEnd != null ? LocalDateTime.parse(rangeEnd, formatter) : null,
-                PageRequest.of(from / size, size));
+                rangeStart != null ? TimeCodec.parse(rangeStart) : null,
+                rangeEnd != null ? TimeCodec.parse(rangeEnd) : null,
+                after != null ? after.getId() : null,
+                Cursor.pageable(after, from, size, Sort.by("id")));
+        List<Event> events = inOrder(eventIds, eventRepository.findFullByIdIn(eventIds), Event::getId);
 
-        return events
-                .stream()
+        return new CursorPage<>(events.stream()
                 .map(EventMapper::toEventFullDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()),
+                eventIds.size() == size ? Cursor.ofId(eventIds.get(eventIds.size() - 1)).encode() : null);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
-    public List<EventShortDto> getPublishedEvents(String text, List<Long> categories, Boolean paid, String rangeStart,
-                                                  String rangeEnd, boolean onlyAvailable, String sort, int from, int size,
-                                                  HttpServletRequest request) {
+    public CursorPage<EventShortDto> getPublishedEvents(String text, List<Long> categories, Boolean paid,
+                                                        String rangeStart, String rangeEnd, boolean onlyAvailable,
+                                                        String sort, String cursor, int from, int size,
+                                                        HttpServletRequest request) {
         log.info("Поиск событий по параметрам: " +
-                "text = {}, categories = {}, paid = {}, rangeStart = {}, rangeEnd = {}, onlyAvailable = {}, sort = {}, from = {}, size = {}",
-                text, categories, paid, rangeStart, rangeEnd, onlyAvailable, sort, from, size);
+                "text = {}, categories = {}, paid = {}, rangeStart = {}, rangeEnd = {}, onlyAvailable = {}, sort = {}, " +
+                "cursor = {}, from = {}, size = {}",
+                text, categories, paid, rangeStart, rangeEnd, onlyAvailable, sort, cursor, from, size);
 
         log.info("Ip: {}", request.getRemoteAddr());
         log.info("Endpoint: {}", request.getRequestURI());
@@ -295,73 +309,113 @@ public class EventServiceImpl implements EventService {
                 .app("ewm-main-service")
                 .uri(request.getRequestURI())
                 .ip(request.getRemoteAddr())
-                .timestamp(LocalDateTime.now().format(formatter))
+                .timestamp(LocalDateTime.now())
                 .build());
 
         if (rangeStart != null && rangeEnd != null &&
-                LocalDateTime.parse(rangeStart, formatter).isAfter(LocalDateTime.parse(rangeEnd, formatter))) {
+                TimeCodec.parse(rangeStart).isAfter(TimeCodec.parse(rangeEnd))) {
             throw new RequestValidationException("Дата начала события должна быть раньше даты окончания");
         }
 
-        List<Event> events = eventRepository.findPublishedEvents(
-                    text,
-                    categories,
-                    paid,
-                    rangeStart != null ? LocalDateTime.parse(rangeStart, formatter) : LocalDateTime.now(),
-                    rangeEnd != null ? LocalDateTime.parse(rangeEnd, formatter) : null,
-                    PageRequest.of(from / size, size));
-
-        List<EventShortDto> eventShortDto = Collections.emptyList();
-        if (events != null) {
-            eventShortDto = events.stream().map(EventMapper::toEventShortDto).collect(Collectors.toList());
+        LocalDateTime start = rangeStart != null ? TimeCodec.parse(rangeStart) : LocalDateTime.now();
+        LocalDateTime end = rangeEnd != null ? TimeCodec.parse(rangeEnd) : null;
 
-            if (onlyAvailable) {
-                eventShortDto = events.stream().filter(event ->
-                        countConfirmedRequests(event.getRequests()) < event.getParticipantLimit()
-                ).map(EventMapper::toEventShortDto).collect(Collectors.toList());
-            }
-
-            if (sort != null) {
-                switch (EventSort.valueOf(sort)) {
-                    case EVENT_DATE:
-                        eventShortDto.sort(Comparator.comparing(EventShortDto::getEventDate));
-                        break;
-
-                    case VIEWS:
-                        eventShortDto.sort(Comparator.comparing(EventShortDto::getViews));
-                        break;
-                    default: throw new RequestValidationException("Не верные параметры сортировки");
-                }
-            }
+        EventSort eventSort = toEventSort(sort);
+        boolean search = fullTextSearch && text != null && !text.isBlank();
+        boolean ranked = search && eventSort == null;
+        Cursor after = eventSort == null ? Cursor.decodeId(cursor) : Cursor.decode(cursor);
+        if (ranked && after != null) {
+            throw new RequestValidationException("Курсор не поддерживается при сортировке по релевантности");
+        }
+        if (eventSort == EventSort.VIEWS && after != null) {
+            throw new RequestValidationException("Курсор не поддерживается при сортировке по просмотрам");
         }
-        return eventShortDto;
+        LocalDateTime afterDate = after != null && eventSort == EventSort.EVENT_DATE ? after.dateKey() : null;
+        Long afterId = after != null ? after.getId() : null;
+
+        List<Long> eventIds;
+        if (ranked) {
+            eventIds = eventRepository.searchPublishedEventIds(text, categories, paid, start, end, onlyAvailable,
+                    null, null,
+                    PageRequest.of(from / size, size, Sort.by(Sort.Order.desc("rank"), Sort.Order.asc("id"))));
+        } else if (search) {
+            eventIds = eventRepository.searchPublishedEventIds(text, categories, paid, start, end, onlyAvailable,
+                    afterDate, afterId, Cursor.pageable(after, from, size, toSort(eventSort)));
+        } else {
+            eventIds = eventRepository.findPublishedEventIds(text, categories, paid, start, end, onlyAvailable,
+                    afterDate, afterId, Cursor.pageable(after, from, size, toSort(eventSort)));
+        }
+        List<EventShortView> events = eventIds.isEmpty()
+                ? Collections.emptyList()
+                : inOrder(eventIds, eventRepository.findShortViewsByIdIn(eventIds), EventShortView::getId);
+        String nextCursor = !ranked && eventSort != EventSort.VIEWS && eventIds.size() == size && !events.isEmpty()
+                ? toCursor(events.get(events.size() - 1), eventSort).encode()
+                : null;
+
+        return new CursorPage<>(events.stream()
+                .map(EventMapper::toEventShortDto)
+                .collect(Collectors.toList()), nextCursor);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
     public EventFullDto getPublishedEventById(Long eventId, HttpServletRequest request) {
 
         log.info("Получение информации об опубликованном событии по id: event_id = " + eventId);
 
-        Event event = eventRepository.findByIdAndState(eventId, EventState.PUBLISHED)
+        EventFullView event = eventRepository.findFullViewByIdAndState(eventId, EventState.PUBLISHED)
                 .orElseThrow(() -> new EventNotFoundException(eventId));
 
-        Integer countHits = getCountHits(request);
+        eventViewCounter.registerView(eventId, request.getRemoteAddr());
 
         statClient.addHit(HitDto.builder()
                 .app("ewm-main-service")
                 .uri(request.getRequestURI())
                 .ip(request.getRemoteAddr())
-                .timestamp(LocalDateTime.now().format(formatter))
+                .timestamp(LocalDateTime.now())
                 .build());
 
-        Integer newCountHits = getCountHits(request);
+        return toEventFullDto(event);
+    }
 
-        if (newCountHits != null && newCountHits > countHits) {
-            event.setViews(event.getViews() + 1);
-            eventRepository.save(event);
+    /**
+     * Возвращает события в порядке идентификаторов, полученных из запроса с сортировкой и пагинацией.
+     */
+    private static <T> List<T> inOrder(List<Long> eventIds, List<T> events, Function<T, Long> idGetter) {
+        Map<Long, T> eventsById = events.stream().collect(Collectors.toMap(idGetter, Function.identity()));
+        return eventIds.stream().map(eventsById::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private EventSort toEventSort(String sort) {
+        if (sort == null) {
+            return null;
         }
-        return toEventFullDto(event);
+        try {
+            return EventSort.valueOf(sort);
+        } catch (IllegalArgumentException e) {
+            throw new RequestValidationException("Не верные параметры сортировки");
+        }
+    }
+
+    private Sort toSort(EventSort eventSort) {
+        if (eventSort == null) {
+            return Sort.by("id");
+        }
+        switch (eventSort) {
+            case EVENT_DATE:
+                return Sort.by("event_date", "id");
+            case VIEWS:
+                return Sort.by("views", "id");
+            default:
+                throw new RequestValidationException("Не верные параметры сортировки");
+        }
+    }
+
+    private static Cursor toCursor(EventShortView event, EventSort eventSort) {
+        if (eventSort == EventSort.EVENT_DATE) {
+            return Cursor.of(event.getEventDate(), event.getId());
+        }
+        return Cursor.ofId(event.getId());
     }
 
     private void validateEventStates(List<String> states) {
@@ -373,24 +427,4 @@ public class EventServiceImpl implements EventService {
                     throw new RequestValidationException("Неправильный статус");
                 }
     }
-
-    private Integer getCountHits(HttpServletRequest request) {
-
-        log.info("Ip: {}", request.getRemoteAddr());
-        log.info("Endpoint: {}", request.getRequestURI());
-
-        ResponseEntity<StatDto[]> response = statClient.getStats(
-                LocalDateTime.now().minusYears(100).format(formatter),
-                LocalDateTime.now().format(formatter),
-                new String[] {request.getRequestURI()},
-                true);
-        Optional<StatDto> statDto;
-        int hits = 0;
-        if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-            statDto = Arrays.stream(response.getBody()).findFirst();
-            if (statDto.isPresent())
-                hits = statDto.get().getHits();
-        }
-        return hits;
-    }
 }
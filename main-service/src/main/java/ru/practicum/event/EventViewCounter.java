@@ -0,0 +1,90 @@
+package ru.practicum.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Считает уникальные просмотры событий в памяти и периодически дописывает накопленные приращения в events.views.
+ * events.views - единственный источник просмотров во всех ответах и в сортировке VIEWS, поэтому новые просмотры
+ * видны после ближайшей записи, через {@code flush-interval-ms}.
+ * Известные зрители хранятся в LRU-кэшах: ограничено и число событий, и число ip на событие.
+ */
+@Slf4j
+@Component
+public class EventViewCounter {
+
+    private final EventViewRepository eventViewRepository;
+    private final int maxViewersPerEvent;
+    private final Map<Long, Set<String>> viewersByEventId;
+    private final ConcurrentHashMap<Long, Long> pendingViews = new ConcurrentHashMap<>();
+
+    public EventViewCounter(EventViewRepository eventViewRepository,
+                            @Value("${ewm.views.max-events:10000}") int maxEvents,
+                            @Value("${ewm.views.max-viewers-per-event:10000}") int maxViewersPerEvent) {
+        this.eventViewRepository = eventViewRepository;
+        this.maxViewersPerEvent = maxViewersPerEvent;
+        this.viewersByEventId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Set<String>> eldest) {
+                return size() > maxEvents;
+            }
+        };
+    }
+
+    public boolean registerView(Long eventId, String ip) {
+        boolean isNewViewer;
+        synchronized (viewersByEventId) {
+            isNewViewer = viewersByEventId.computeIfAbsent(eventId, id -> newViewerSet()).add(ip);
+        }
+        if (isNewViewer) {
+            pendingViews.merge(eventId, 1L, Long::sum);
+        }
+        return isNewViewer;
+    }
+
+    @Scheduled(fixedDelayString = "${ewm.views.flush-interval-ms:5000}")
+    public void flush() {
+        Map<Long, Long> batch = new HashMap<>();
+        for (Long eventId : pendingViews.keySet()) {
+            Long views = pendingViews.remove(eventId);
+            if (views != null) {
+                batch.put(eventId, views);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            eventViewRepository.addViews(batch);
+            log.debug("Записаны просмотры для {} событий", batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Не удалось записать просмотры для {} событий, повтор при следующей записи: {}",
+                    batch.size(), e.getMessage());
+            batch.forEach((eventId, views) -> pendingViews.merge(eventId, views, Long::sum));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private Set<String> newViewerSet() {
+        return Collections.newSetFromMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > maxViewersPerEvent;
+            }
+        });
+    }
+}
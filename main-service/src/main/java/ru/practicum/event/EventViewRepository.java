@@ -0,0 +1,26 @@
+package ru.practicum.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class EventViewRepository {
+
+    private static final String ADD_VIEWS = "UPDATE events SET views = COALESCE(views, 0) + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void addViews(Map<Long, Long> viewsByEventId) {
+        List<Map.Entry<Long, Long>> increments = new ArrayList<>(viewsByEventId.entrySet());
+        jdbcTemplate.batchUpdate(ADD_VIEWS, increments, increments.size(), (ps, increment) -> {
+            ps.setLong(1, increment.getValue());
+            ps.setLong(2, increment.getKey());
+        });
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.event.dto;
+
+import lombok.Value;
+import ru.practicum.event.EventState;
+
+import java.time.LocalDateTime;
+
+/**
+ * Плоская проекция события для публичной карточки, выбирается JPQL-конструктором без загрузки сущностей.
+ */
+@Value
+public class EventFullView {
+
+    Long id;
+    String title;
+    String annotation;
+    Long categoryId;
+    String categoryName;
+    String description;
+    LocalDateTime eventDate;
+    float lat;
+    float lon;
+    boolean paid;
+    int participantLimit;
+    boolean requestModeration;
+    long confirmedRequests;
+    LocalDateTime createdOn;
+    LocalDateTime publishedOn;
+    Long initiatorId;
+    String initiatorName;
+    EventState state;
+    Long views;
+}
@@ -1,13 +1,12 @@
 package ru.practicum.event.dto;
 
 import lombok.experimental.UtilityClass;
+import ru.practicum.TimeCodec;
+import ru.practicum.category.dto.CategoryDto;
 import ru.practicum.event.Event;
-import ru.practicum.request.ParticipationRequest;
-import ru.practicum.request.ParticipationRequestStatus;
+import ru.practicum.location.dto.LocationDto;
+import ru.practicum.user.dto.UserShortDto;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
 
 import static ru.practicum.category.dto.CategoryMapper.toCategoryDto;
 import static ru.practicum.location.dto.LocationMapper.toLocation;
@@ -17,14 +16,12 @@ import static ru.practicum.user.dto.UserMapper.toUserShortDto;
 @UtilityClass
 public class EventMapper {
 
-    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
     public static Event toEvent(NewEventDto newEventDto) {
         return Event.builder()
                 .title(newEventDto.getTitle())
                 .annotation(newEventDto.getAnnotation())
                 .description(newEventDto.getDescription())
-                .eventDate(LocalDateTime.parse(newEventDto.getEventDate(), formatter))
+                .eventDate(TimeCodec.parse(newEventDto.getEventDate()))
                 .location(toLocation(newEventDto.getLocation()))
                 .paid(newEventDto.isPaid())
                 .participantLimit(newEventDto.getParticipantLimit())
@@ -39,14 +36,14 @@ public class EventMapper {
                 .annotation(event.getAnnotation())
                 .category(toCategoryDto(event.getCategory()))
                 .description(event.getDescription())
-                .eventDate(event.getEventDate().format(formatter))
+                .eventDate(TimeCodec.format(event.getEventDate()))
                 .location(toLocationDto(event.getLocation()))
                 .paid(event.isPaid())
                 .participantLimit(event.getParticipantLimit())
                 .requestModeration(event.isRequestModeration())
-                .confirmedRequests(countConfirmedRequests(event.getRequests()))
-                .createdOn(event.getCreatedOn().format(formatter))
-                .publishedOn(event.getPublishedOn() != null ? event.getPublishedOn().format(formatter) : null)
+                .confirmedRequests(event.getConfirmedRequests())
+                .createdOn(TimeCodec.format(event.getCreatedOn()))
+                .publishedOn(event.getPublishedOn() != null ? TimeCodec.format(event.getPublishedOn()) : null)
                 .initiator(toUserShortDto(event.getInitiator()))
                 .state(event.getState().toString())
                 .views(event.getViews())
@@ -59,17 +56,46 @@ public class EventMapper {
                 .title(event.getTitle())
                 .annotation(event.getAnnotation())
                 .category(toCategoryDto(event.getCategory()))
-                .eventDate(event.getEventDate().format(formatter))
-                .confirmedRequests(countConfirmedRequests(event.getRequests()))
+                .eventDate(TimeCodec.format(event.getEventDate()))
+                .confirmedRequests(event.getConfirmedRequests())
                 .initiator(toUserShortDto(event.getInitiator()))
                 .paid(event.isPaid())
                 .views(event.getViews())
                 .build();
     }
 
-    public static long countConfirmedRequests(List<ParticipationRequest> requests) {
-        return requests != null
-                ? requests.stream().filter(r -> r.getStatus() == ParticipationRequestStatus.CONFIRMED).count()
-                : 0;
+    public static EventShortDto toEventShortDto(EventShortView view) {
+        return EventShortDto.builder()
+                .id(view.getId())
+                .title(view.getTitle())
+                .annotation(view.getAnnotation())
+                .category(new CategoryDto(view.getCategoryId(), view.getCategoryName()))
+                .eventDate(TimeCodec.format(view.getEventDate()))
+                .confirmedRequests(view.getConfirmedRequests())
+                .initiator(new UserShortDto(view.getInitiatorId(), view.getInitiatorName()))
+                .paid(view.isPaid())
+                .views(view.getViews())
+                .build();
+    }
+
+    public static EventFullDto toEventFullDto(EventFullView view) {
+        return EventFullDto.builder()
+                .id(view.getId())
+                .title(view.getTitle())
+                .annotation(view.getAnnotation())
+                .category(new CategoryDto(view.getCategoryId(), view.getCategoryName()))
+                .description(view.getDescription())
+                .eventDate(TimeCodec.format(view.getEventDate()))
+                .location(new LocationDto(view.getLat(), view.getLon()))
+                .paid(view.isPaid())
+                .participantLimit(view.getParticipantLimit())
+                .requestModeration(view.isRequestModeration())
+                .confirmedRequests(view.getConfirmedRequests())
+                .createdOn(TimeCodec.format(view.getCreatedOn()))
+                .publishedOn(view.getPublishedOn() != null ? TimeCodec.format(view.getPublishedOn()) : null)
+                .initiator(new UserShortDto(view.getInitiatorId(), view.getInitiatorName()))
+                .state(view.getState().toString())
+                .views(view.getViews())
+                .build();
     }
 }
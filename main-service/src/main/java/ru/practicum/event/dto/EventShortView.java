@@ -0,0 +1,25 @@
+package ru.practicum.event.dto;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Плоская проекция события для публичных списков: выбирается JPQL-конструктором без загрузки сущностей,
+ * описание события не читается.
+ */
+@Value
+public class EventShortView {
+
+    Long id;
+    String title;
+    String annotation;
+    Long categoryId;
+    String categoryName;
+    LocalDateTime eventDate;
+    long confirmedRequests;
+    Long initiatorId;
+    String initiatorName;
+    boolean paid;
+    Long views;
+}
@@ -6,6 +6,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.practicum.TimeCodec;
 import ru.practicum.category.CategoryController;
 import ru.practicum.comment.CommentController;
 import ru.practicum.compilation.CompilationController;
@@ -16,7 +17,6 @@ import ru.practicum.user.UserController;
 
 import javax.persistence.EntityNotFoundException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 @RestControllerAdvice(assignableTypes = {
         UserController.class,
@@ -27,20 +27,18 @@ import java.time.format.DateTimeFormatter;
         CommentController.class})
 public class ErrorHandler {
 
-    private static final String DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
-
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ApiError handleMethodArgumentNotValidException(MethodArgumentNotValidException e) {
         return new ApiError("BAD_REQUEST", "Некорректный запрос",
-                e.getMessage(), LocalDateTime.now().format(DateTimeFormatter.ofPattern(DATE_TIME_PATTERN)));
+                e.getMessage(), TimeCodec.format(LocalDateTime.now()));
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ApiError handleRequestValidationException(RequestValidationException e) {
         return new ApiError("BAD_REQUEST", "Некорректный запрос",
-                e.getMessage(), LocalDateTime.now().format(DateTimeFormatter.ofPattern(DATE_TIME_PATTERN)));
+                e.getMessage(), TimeCodec.format(LocalDateTime.now()));
     }
 
     @ExceptionHandler({
@@ -51,20 +49,20 @@ public class ErrorHandler {
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ApiError handleObjectNotFoundException(EntityNotFoundException e) {
         return new ApiError("NOT_FOUND", "Объект запроса не найден",
-                e.getMessage(), LocalDateTime.now().format(DateTimeFormatter.ofPattern(DATE_TIME_PATTERN)));
+                e.getMessage(), TimeCodec.format(LocalDateTime.now()));
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.CONFLICT)
     public ApiError handleConstraintValidationException(ConstraintViolationException e) {
         return new ApiError("CONFLICT", "Целостность данных была нарушена",
-                e.getMessage(), LocalDateTime.now().format(DateTimeFormatter.ofPattern(DATE_TIME_PATTERN)));
+                e.getMessage(), TimeCodec.format(LocalDateTime.now()));
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.CONFLICT)
     public ApiError handleForbiddenException(ForbiddenException e) {
         return new ApiError("FORBIDDEN", "Нарушены условия запроса",
-                e.getMessage(), LocalDateTime.now().format(DateTimeFormatter.ofPattern(DATE_TIME_PATTERN)));
+                e.getMessage(), TimeCodec.format(LocalDateTime.now()));
     }
 }
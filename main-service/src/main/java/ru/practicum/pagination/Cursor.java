@@ -0,0 +1,81 @@
+package ru.practicum.pagination;
+
+import lombok.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ru.practicum.exceptions.RequestValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Непрозрачный курсор постраничной выборки: значение ключа сортировки и id последней отданной строки,
+ * закодированные в Base64 как "key|id". Следующая страница читается условием (key, id) > (?, ?),
+ * поэтому её стоимость не зависит от того, насколько далеко пролистан список.
+ */
+@Value
+public class Cursor {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    String key;
+    long id;
+
+    public static Cursor ofId(long id) {
+        return new Cursor("", id);
+    }
+
+    public static Cursor of(Object key, long id) {
+        return new Cursor(String.valueOf(key), id);
+    }
+
+    /**
+     * Разбирает курсор из запроса; null, если курсор не передан.
+     */
+    public static Cursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('|');
+            return new Cursor(value.substring(0, separator), Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new RequestValidationException("Некорректный курсор: " + cursor);
+        }
+    }
+
+    /**
+     * Разбирает курсор списка, отсортированного только по id; курсор другой сортировки отклоняется.
+     */
+    public static Cursor decodeId(String cursor) {
+        Cursor after = decode(cursor);
+        if (after != null && !after.getKey().isEmpty()) {
+            throw new RequestValidationException("Курсор не соответствует сортировке по id");
+        }
+        return after;
+    }
+
+    /**
+     * Страница после курсора всегда первая, без курсора - обычное смещение from.
+     */
+    public static Pageable pageable(Cursor cursor, int from, int size, Sort sort) {
+        return PageRequest.of(cursor != null ? 0 : from / size, size, sort);
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((key + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime dateKey() {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new RequestValidationException("Курсор не соответствует сортировке по дате события");
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.pagination;
+
+import lombok.Value;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница списка вместе с курсором следующей страницы (null, если страница неполная и дальше ничего нет).
+ */
+@Value
+public class CursorPage<T> {
+
+    List<T> items;
+    String nextCursor;
+
+    public static <T> CursorPage<T> of(List<T> items, int size, Function<T, Cursor> cursorOf) {
+        return new CursorPage<>(items, items.size() == size && !items.isEmpty()
+                ? cursorOf.apply(items.get(items.size() - 1)).encode()
+                : null);
+    }
+
+    public ResponseEntity<List<T>> toResponse() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(Cursor.NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return response.body(items);
+    }
+}
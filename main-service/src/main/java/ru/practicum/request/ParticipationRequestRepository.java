@@ -15,8 +15,6 @@ public interface ParticipationRequestRepository extends JpaRepository<Participat
 
     List<Optional<ParticipationRequest>> findByRequesterId(Long userId);
 
-    Integer countByEventIdAndStatus(Long eventId, ParticipationRequestStatus status);
-
     List<Optional<ParticipationRequest>> findByEventIn(List<Event> userEvents);
 
     @Modifying
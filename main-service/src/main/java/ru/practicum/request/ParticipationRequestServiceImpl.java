@@ -60,7 +60,7 @@ public class ParticipationRequestServiceImpl implements ParticipationRequestServ
             throw new ForbiddenException("Попытка добавления запроса на неопубликованное событие");
         }
 
-        if (event.getParticipantLimit() != 0 && participationRequestRepository.countByEventIdAndStatus(eventId, ParticipationRequestStatus.CONFIRMED) >= event.getParticipantLimit()) {
+        if (event.getParticipantLimit() != 0 && event.getConfirmedRequests() >= event.getParticipantLimit()) {
             log.info("Пользователь с id = {} не может участвовать в событии с id = {}", userId, eventId +
                     ", так как достигнуто максимальное количество запросов на участие");
             throw new ForbiddenException("Попытка добавления запроса на участие в событии с максимальным количеством запросов");
@@ -78,6 +78,10 @@ public class ParticipationRequestServiceImpl implements ParticipationRequestServ
                 .status(status)
                 .build();
 
+        if (status == ParticipationRequestStatus.CONFIRMED && eventRepository.addConfirmedRequests(eventId, 1) == 0) {
+            throw new ForbiddenException("Попытка добавления запроса на участие в событии с максимальным количеством запросов");
+        }
+
         return toParticipationRequestDto(participationRequestRepository.save(newParticipationRequest));
     }
 
@@ -89,12 +93,15 @@ public class ParticipationRequestServiceImpl implements ParticipationRequestServ
 
         userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
         ParticipationRequest requestToUpdate = participationRequestRepository.getReferenceById(requestId);
+        if (requestToUpdate.getStatus() == ParticipationRequestStatus.CONFIRMED) {
+            eventRepository.removeConfirmedRequests(requestToUpdate.getEvent().getId(), 1);
+        }
         requestToUpdate.setStatus(ParticipationRequestStatus.CANCELED);
 
         return toParticipationRequestDto(participationRequestRepository.save(requestToUpdate));
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
     public List<ParticipationRequestDto> getRequestsForParticipation(Long userId) {
 
@@ -110,7 +117,7 @@ public class ParticipationRequestServiceImpl implements ParticipationRequestServ
                 .collect(Collectors.toList());
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
     public List<ParticipationRequestDto> getParticipationRequestsForUserEvent(Long userId, Long eventId) {
 
@@ -179,7 +186,7 @@ public class ParticipationRequestServiceImpl implements ParticipationRequestServ
             throw new ForbiddenException("Запрос отклонен: лимит участников равен 0 или не пройдена модерация");
         }
 
-        Integer countParticipants = participationRequestRepository.countByEventIdAndStatus(event.getId(), ParticipationRequestStatus.CONFIRMED);
+        long countParticipants = event.getConfirmedRequests();
 
         if (countParticipants == limitParticipants) {
             throw new ForbiddenException("Достигнуто максимальное количество заявок на участие");
@@ -203,6 +210,11 @@ public class ParticipationRequestServiceImpl implements ParticipationRequestServ
         }
         participationRequestRepository.saveAll(requests);
 
+        int confirmed = eventRequestStatusUpdateResultDto.getConfirmedRequests().size();
+        if (confirmed > 0 && eventRepository.addConfirmedRequests(event.getId(), confirmed) == 0) {
+            throw new ForbiddenException("Достигнуто максимальное количество заявок на участие");
+        }
+
         if (countParticipants == limitParticipants) {
             participationRequestRepository.updateRequestStatusByEventIdAndStatus(event,
                     ParticipationRequestStatus.PENDING, ParticipationRequestStatus.REJECTED);
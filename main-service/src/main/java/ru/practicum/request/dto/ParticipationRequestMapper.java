@@ -1,9 +1,9 @@
 package ru.practicum.request.dto;
 
 import lombok.experimental.UtilityClass;
+import ru.practicum.TimeCodec;
 import ru.practicum.request.ParticipationRequest;
 
-import java.time.format.DateTimeFormatter;
 
 @UtilityClass
 public class ParticipationRequestMapper {
@@ -14,7 +14,7 @@ public class ParticipationRequestMapper {
                 .event(request.getEvent().getId())
                 .requester(request.getRequester().getId())
                 .status(request.getStatus().toString())
-                .created(request.getCreated().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")))
+                .created(TimeCodec.format(request.getCreated()))
                 .build();
     }
 }
@@ -2,6 +2,7 @@ package ru.practicum.user;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.user.dto.NewUserRequestDto;
@@ -17,11 +18,13 @@ public class UserController {
     private final UserService userService;
 
     @GetMapping
-    public List<UserDto> getUsers(
+    public ResponseEntity<List<UserDto>> getUsers(
             @RequestParam(required = false) List<Long> ids,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int from,
             @RequestParam(defaultValue = "10") int size) {
-        return ids == null ? userService.getUsers(from, size) : userService.getUsers(ids, from, size);
+        return (ids == null ? userService.getUsers(cursor, from, size) : userService.getUsers(ids, cursor, from, size))
+                .toResponse();
     }
 
     @PostMapping
@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.List;
 
 public interface UserRepository extends JpaRepository<User, Long> {
-    List<User> findUserByIdIn(List<Long> ids, Pageable pageable);
+    List<User> findUserByIdInAndIdGreaterThan(List<Long> ids, Long afterId, Pageable pageable);
+
+    List<User> findByIdGreaterThan(Long afterId, Pageable pageable);
 
 }
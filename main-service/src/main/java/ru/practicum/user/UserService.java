@@ -1,5 +1,6 @@
 package ru.practicum.user;
 
+import ru.practicum.pagination.CursorPage;
 import ru.practicum.user.dto.NewUserRequestDto;
 import ru.practicum.user.dto.UserDto;
 
@@ -7,9 +8,9 @@ import java.util.List;
 
 public interface UserService {
 
-    List<UserDto> getUsers(List<Long> ids, int from, int size);
+    CursorPage<UserDto> getUsers(List<Long> ids, String cursor, int from, int size);
 
-    List<UserDto> getUsers(int from, int size);
+    CursorPage<UserDto> getUsers(String cursor, int from, int size);
 
     UserDto createUser(NewUserRequestDto newUserRequestDto);
 
@@ -2,9 +2,11 @@ package ru.practicum.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.pagination.Cursor;
+import ru.practicum.pagination.CursorPage;
 import ru.practicum.user.dto.NewUserRequestDto;
 import ru.practicum.user.dto.UserDto;
 
@@ -19,18 +21,24 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
-    public List<UserDto> getUsers(List<Long> id, int from, int size) {
-        log.info("Получение пользователей по id: id = {}, from = {}, size = {}", id, from, size);
-        return toUserDto(userRepository.findUserByIdIn(id, PageRequest.of(from / size, size)));
+    public CursorPage<UserDto> getUsers(List<Long> id, String cursor, int from, int size) {
+        log.info("Получение пользователей по id: id = {}, cursor = {}, from = {}, size = {}", id, cursor, from, size);
+        Cursor after = Cursor.decodeId(cursor);
+        return CursorPage.of(toUserDto(userRepository.findUserByIdInAndIdGreaterThan(id,
+                        after != null ? after.getId() : 0L, Cursor.pageable(after, from, size, Sort.by("id")))),
+                size, user -> Cursor.ofId(user.getId()));
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
-    public List<UserDto> getUsers(int from, int size) {
-        log.info("Получение всех пользователей: from = {}, size = {}", from, size);
-        return toUserDto(userRepository.findAll(PageRequest.of(from / size, size)));
+    public CursorPage<UserDto> getUsers(String cursor, int from, int size) {
+        log.info("Получение всех пользователей: cursor = {}, from = {}, size = {}", cursor, from, size);
+        Cursor after = Cursor.decodeId(cursor);
+        return CursorPage.of(toUserDto(userRepository.findByIdGreaterThan(after != null ? after.getId() : 0L,
+                        Cursor.pageable(after, from, size, Sort.by("id")))),
+                size, user -> Cursor.ofId(user.getId()));
     }
 
     @Transactional
@@ -36,6 +36,7 @@ CREATE TABLE IF NOT EXISTS events (
    initiator_id BIGINT,
    state VARCHAR(10) DEFAULT 'PENDING',
    views BIGINT DEFAULT 0,
+   confirmed_requests BIGINT DEFAULT 0,
    CONSTRAINT pk_event PRIMARY KEY (id),
    CONSTRAINT fk_category FOREIGN KEY (category_id) REFERENCES categories(id),
    CONSTRAINT fk_location FOREIGN KEY (location_id) REFERENCES locations(id),
@@ -43,7 +44,7 @@ CREATE TABLE IF NOT EXISTS events (
 );
 
 CREATE TABLE IF NOT EXISTS compilations (
-      id INTEGER GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+      id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
       pinned BOOLEAN,
       title VARCHAR(50),
       CONSTRAINT COMPILATIONS_PK PRIMARY KEY (id),
@@ -73,10 +74,6 @@ CREATE TABLE IF NOT EXISTS comments (
    text       VARCHAR(512) NOT NULL,
    updated_on TIMESTAMP WITHOUT TIME ZONE,
    author_id  BIGINT CONSTRAINT fk_author REFERENCES users,
-   event_id   BIGINT CONSTRAINT fk_event_1 REFERENCES events
+   event_id   BIGINT CONSTRAINT fk_event_1 REFERENCES events,
+   CONSTRAINT pk_comment PRIMARY KEY (id)
 );
-
-
-
-
-
@@ -0,0 +1,16 @@
+CREATE INDEX IF NOT EXISTS idx_events_state_event_date ON events (state, event_date);
+CREATE INDEX IF NOT EXISTS idx_events_state_views ON events (state, views);
+CREATE INDEX IF NOT EXISTS idx_events_category_id ON events (category_id);
+CREATE INDEX IF NOT EXISTS idx_events_initiator_id ON events (initiator_id);
+CREATE INDEX IF NOT EXISTS idx_events_fts ON events USING GIN (to_tsvector('russian',
+   coalesce(title, '') || ' ' || coalesce(annotation, '') || ' ' || coalesce(description, '')));
+
+CREATE INDEX IF NOT EXISTS idx_requests_event_id_status ON requests (event_id, status);
+CREATE INDEX IF NOT EXISTS idx_requests_requester_id_event_id ON requests (requester_id, event_id);
+
+CREATE INDEX IF NOT EXISTS idx_comments_event_id ON comments (event_id);
+
+CREATE INDEX IF NOT EXISTS idx_event_compilation_compilation_id ON event_compilation (compilation_id);
+CREATE INDEX IF NOT EXISTS idx_event_compilation_event_id ON event_compilation (event_id);
+
+CREATE INDEX IF NOT EXISTS idx_compilations_pinned ON compilations (pinned);
@@ -0,0 +1,13 @@
+-- Базы, созданные ещё schema.sql и размеченные Flyway как версия 1, пропустили V1__init.sql.
+-- Доводим их схему до V1; на базе, созданной миграциями, скрипт ничего не меняет.
+ALTER TABLE events ADD COLUMN IF NOT EXISTS confirmed_requests BIGINT DEFAULT 0;
+
+UPDATE events e SET confirmed_requests = (SELECT COUNT(*) FROM requests r
+                                          WHERE r.event_id = e.id AND r.status = 'CONFIRMED');
+
+DO $$
+BEGIN
+  IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'pk_comment') THEN
+    ALTER TABLE comments ADD CONSTRAINT pk_comment PRIMARY KEY (id);
+  END IF;
+END $$;
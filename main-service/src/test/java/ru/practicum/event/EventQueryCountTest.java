@@ -0,0 +1,103 @@
+package ru.practicum.event;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Число подготовленных SQL-запросов на чтение событий не должно расти с размером страницы.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EventQueryCountTest {
+
+    private static final int USERS = 3;
+    private static final int EVENTS = 30;
+    private static final int COMMENTS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeAll
+    void seed() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (int u = 1; u <= USERS; u++) {
+            send(post("/admin/users"), "{\"name\":\"user" + u + "\",\"email\":\"user" + u + "@mail.ru\"}");
+        }
+        send(post("/admin/categories"), "{\"name\":\"category\"}");
+        for (int i = 1; i <= EVENTS; i++) {
+            send(post("/users/" + (i % USERS + 1) + "/events"), "{\"title\":\"event " + i + "\"," +
+                    "\"annotation\":\"annotation of event number " + i + "\",\"category\":1," +
+                    "\"description\":\"description of event number " + i + "\"," +
+                    "\"eventDate\":\"2030-01-01 10:" + String.format("%02d", i) + ":00\"," +
+                    "\"location\":{\"lat\":55.75,\"lon\":37.62},\"participantLimit\":0}");
+            send(patch("/admin/events/" + i), "{\"stateAction\":\"PUBLISH_EVENT\"}");
+        }
+        for (int u = 1; u <= COMMENTS; u++) {
+            send(post("/user/" + (u % USERS + 1) + "/events/1/comment/"), "{\"text\":\"comment number " + u + "\"}");
+        }
+    }
+
+    @Test
+    void publishedEvents() throws Exception {
+        assertThat(countStatements(get("/events").param("size", "20"))).isLessThanOrEqualTo(2);
+        assertThat(countStatements(get("/events").param("sort", "VIEWS").param("size", "20")))
+                .isLessThanOrEqualTo(2);
+        assertThat(countStatements(get("/events").param("text", "NUMBER").param("size", "20")))
+                .isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void adminEvents() throws Exception {
+        assertThat(countStatements(get("/admin/events").param("size", "20"))).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void userEvents() throws Exception {
+        assertThat(countStatements(get("/users/1/events").param("size", "10"))).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void publishedEvent() throws Exception {
+        assertThat(countStatements(get("/events/1"))).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void eventComments() throws Exception {
+        assertThat(countStatements(get("/events/1/comments"))).isLessThanOrEqualTo(2);
+    }
+
+    private void send(MockHttpServletRequestBuilder request, String body) throws Exception {
+        mockMvc.perform(request.contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().is2xxSuccessful());
+    }
+
+    private long countStatements(RequestBuilder request) throws Exception {
+        statistics.clear();
+        mockMvc.perform(request).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+}
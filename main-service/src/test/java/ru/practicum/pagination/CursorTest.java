@@ -0,0 +1,28 @@
+package ru.practicum.pagination;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.exceptions.RequestValidationException;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorTest {
+
+    @Test
+    void idCursorRoundTrips() {
+        Cursor cursor = Cursor.decodeId(Cursor.ofId(42).encode());
+
+        assertThat(cursor.getId()).isEqualTo(42);
+    }
+
+    @Test
+    void cursorOfAnotherSortIsRejected() {
+        String dateCursor = Cursor.of(LocalDateTime.of(2024, 5, 1, 12, 0), 42).encode();
+
+        assertThatThrownBy(() -> Cursor.decodeId(dateCursor)).isInstanceOf(RequestValidationException.class);
+        assertThatThrownBy(() -> Cursor.decode(Cursor.ofId(42).encode()).dateKey())
+                .isInstanceOf(RequestValidationException.class);
+    }
+}
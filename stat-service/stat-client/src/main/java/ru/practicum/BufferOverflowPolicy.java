@@ -0,0 +1,5 @@
+package ru.practicum;
+
+public enum BufferOverflowPolicy {
+    DROP, BLOCK
+}
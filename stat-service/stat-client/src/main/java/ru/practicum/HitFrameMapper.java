@@ -0,0 +1,23 @@
+package ru.practicum;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@UtilityClass
+public class HitFrameMapper {
+
+    public static HitFrame toHitFrame(HitDto hitDto) {
+        return HitFrame.builder()
+                .app(hitDto.getApp())
+                .uri(hitDto.getUri())
+                .ip(hitDto.getIp())
+                .timestamp(hitDto.getTimestampMillis())
+                .build();
+    }
+
+    public static List<HitFrame> toHitFrames(List<HitDto> hitDtos) {
+        return hitDtos.stream().map(HitFrameMapper::toHitFrame).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,100 @@
+package ru.practicum;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Блокирующий транспорт на RestTemplate с пулом соединений Apache HttpClient:
+ * запрос выполняется в вызывающем потоке, future возвращается уже завершённым.
+ */
+@Component
+@ConditionalOnProperty(name = "stat-server.client.type", havingValue = "rest", matchIfMissing = true)
+public class RestTemplateStatTransport implements StatTransport {
+
+    private final String serverUrl;
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate rest;
+    private final WireFormat format;
+
+    public RestTemplateStatTransport(@Value("${stat-server.url}") String serverUrl,
+                                     @Value("${stat-server.client.max-connections:50}") int maxConnections,
+                                     @Value("${stat-server.client.connect-timeout-ms:1000}") int connectTimeoutMillis,
+                                     @Value("${stat-server.client.read-timeout-ms:3000}") int readTimeoutMillis,
+                                     @Value("${stat-server.client.keep-alive-ms:30000}") long keepAliveMillis,
+                                     @Value("${stat-server.client.format:JSON}") WireFormat format) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                keepAliveMillis, TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> keepAliveMillis)
+                .evictIdleConnections(keepAliveMillis, TimeUnit.MILLISECONDS)
+                .build();
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setConnectTimeout(connectTimeoutMillis);
+        requestFactory.setConnectionRequestTimeout(connectTimeoutMillis);
+        requestFactory.setReadTimeout(readTimeoutMillis);
+        this.rest = new RestTemplate(requestFactory);
+        this.serverUrl = serverUrl;
+        this.format = format;
+    }
+
+    @Override
+    public CompletableFuture<Void> sendHit(HitDto hitDto) {
+        try {
+            rest.postForLocation(serverUrl + "/hit", body(format == WireFormat.CBOR
+                    ? HitFrameMapper.toHitFrame(hitDto) : hitDto));
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> sendHits(List<HitDto> hitDtos) {
+        try {
+            rest.postForLocation(serverUrl + "/hits", body(format == WireFormat.CBOR
+                    ? HitFrameMapper.toHitFrames(hitDtos) : hitDtos));
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<StatDto[]> getStats(String start, String end, String[] uris, boolean unique) {
+        try {
+            return CompletableFuture.completedFuture(rest.getForObject(
+                    StatTransport.statsUri(serverUrl, start, end, uris, unique), StatDto[].class));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private HttpEntity<Object> body(Object body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(format == WireFormat.CBOR ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(body, headers);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        httpClient.close();
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * Автомат защиты для запросов в сервис статистики. После failure-threshold подряд неудачных вызовов
+ * размыкается на open-ms, затем пропускает один пробный вызов: успех замыкает цепь, неудача снова размыкает.
+ * Ответы 4xx ошибкой сервиса не считаются.
+ */
+@Slf4j
+@Component
+public class StatCircuitBreaker {
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final Counter openedCounter;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public StatCircuitBreaker(@Value("${stat-server.circuit.failure-threshold:5}") int failureThreshold,
+                              @Value("${stat-server.circuit.open-ms:10000}") long openMillis,
+                              MeterRegistry meterRegistry) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.openedCounter = meterRegistry.counter("stat.client.circuit.opened");
+        Gauge.builder("stat.client.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .description("0 - замкнут, 1 - пробный вызов, 2 - разомкнут")
+                .register(meterRegistry);
+    }
+
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() - openedAt < openMillis) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            default:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Сервис статистики снова доступен");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                log.warn("Сервис статистики недоступен, запросы приостановлены на {} мс", openMillis);
+                openedCounter.increment();
+            }
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Можно ли сейчас сделать вызов: цепь замкнута или время размыкания уже истекло.
+     */
+    public synchronized boolean isCallPermitted() {
+        return state == State.CLOSED
+                || state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis;
+    }
+
+    public static boolean isServerFailure(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RestClientResponseException) {
+            return ((RestClientResponseException) cause).getRawStatusCode() >= 500;
+        }
+        if (cause instanceof WebClientResponseException) {
+            return ((WebClientResponseException) cause).getRawStatusCode() >= 500;
+        }
+        return true;
+    }
+}
@@ -1,59 +1,291 @@
 package ru.practicum;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
-import java.util.Map;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+@Slf4j
 @Service
 public class StatClient {
 
-    private final String serverUrl;
-    private final RestTemplate rest;
+    private final StatTransport transport;
+    private final StatCircuitBreaker circuitBreaker;
+    private final StatFallbackCache fallbackCache;
 
-    public StatClient(@Value("${stat-server.url}") String serverUrl) {
-        this.rest = new RestTemplate();
-        this.serverUrl = serverUrl;
+    private final boolean buffered;
+    private final BlockingQueue<HitDto> buffer;
+    private final int batchSize;
+    private final BufferOverflowPolicy overflowPolicy;
+    private final long blockTimeoutMillis;
+    private final BlockingQueue<HitDto> spillover;
+    private final int retryMaxAttempts;
+    private final long retryBaseDelayMillis;
+    private final long retryMaxDelayMillis;
+    private final ScheduledExecutorService flusher;
+    private final ExecutorService retryExecutor;
+    private final AtomicLong droppedHits = new AtomicLong();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final Counter retryCounter;
+    private final Counter spilledCounter;
+
+    public StatClient(StatTransport transport,
+                      StatCircuitBreaker circuitBreaker,
+                      StatFallbackCache fallbackCache,
+                      MeterRegistry meterRegistry,
+                      @Value("${stat-server.buffer.enabled:false}") boolean buffered,
+                      @Value("${stat-server.buffer.capacity:10000}") int capacity,
+                      @Value("${stat-server.buffer.batch-size:500}") int batchSize,
+                      @Value("${stat-server.buffer.flush-interval-ms:1000}") long flushIntervalMillis,
+                      @Value("${stat-server.buffer.overflow-policy:DROP}") BufferOverflowPolicy overflowPolicy,
+                      @Value("${stat-server.buffer.block-timeout-ms:50}") long blockTimeoutMillis,
+                      @Value("${stat-server.spillover.capacity:100000}") int spilloverCapacity,
+                      @Value("${stat-server.retry.max-attempts:3}") int retryMaxAttempts,
+                      @Value("${stat-server.retry.base-delay-ms:100}") long retryBaseDelayMillis,
+                      @Value("${stat-server.retry.max-delay-ms:2000}") long retryMaxDelayMillis) {
+        this.transport = transport;
+        this.circuitBreaker = circuitBreaker;
+        this.fallbackCache = fallbackCache;
+        this.buffered = buffered;
+        this.buffer = buffered ? new ArrayBlockingQueue<>(capacity) : null;
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMillis = blockTimeoutMillis;
+        this.spillover = new ArrayBlockingQueue<>(spilloverCapacity);
+        this.retryMaxAttempts = retryMaxAttempts;
+        this.retryBaseDelayMillis = retryBaseDelayMillis;
+        this.retryMaxDelayMillis = retryMaxDelayMillis;
+        this.flusher = buffered ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stat-client-flusher");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        if (buffered) {
+            this.flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMillis, flushIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+        this.retryExecutor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "stat-client-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.retryCounter = meterRegistry.counter("stat.client.hits.retried");
+        this.spilledCounter = meterRegistry.counter("stat.client.hits.spilled");
+        Gauge.builder("stat.client.hits.dropped", droppedHits, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("stat.client.spillover.size", spillover, BlockingQueue::size).register(meterRegistry);
     }
 
     public void addHit(HitDto hitDto) {
-        HttpEntity<HitDto> requestEntity = new HttpEntity<>(hitDto);
-        rest.exchange(serverUrl + "/hit", HttpMethod.POST, requestEntity, Object.class);
+        if (!buffered) {
+            addHitAsync(hitDto);
+            return;
+        }
+        boolean accepted;
+        if (overflowPolicy == BufferOverflowPolicy.BLOCK) {
+            try {
+                accepted = buffer.offer(hitDto, blockTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                accepted = false;
+            }
+        } else {
+            accepted = buffer.offer(hitDto);
+        }
+        if (!accepted) {
+            log.warn("Буфер статистики переполнен, хит отброшен: {} (всего отброшено {})",
+                    hitDto, droppedHits.incrementAndGet());
+        }
+    }
+
+    /**
+     * Отправляет хит с повторами; если сервис статистики недоступен, хит откладывается в резервный буфер
+     * и будет отправлен после восстановления. Future завершается, когда хит отправлен или отложен.
+     */
+    public CompletableFuture<Void> addHitAsync(HitDto hitDto) {
+        return deliver(List.of(hitDto), 1);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushSafely();
+        retryExecutor.shutdown();
+    }
+
+    /**
+     * Запрашивает статистику; при недоступности сервиса возвращает последние известные значения
+     * по запрошенным uri, а если их нет - завершается ошибкой.
+     */
+    public CompletableFuture<StatDto[]> getStatsAsync(String start, String end, String[] uris, boolean unique) {
+        if (!circuitBreaker.tryAcquire()) {
+            return fallback(start, end, uris, unique, new IllegalStateException("Сервис статистики временно недоступен"));
+        }
+        return call(() -> transport.getStats(start, end, uris, unique))
+                .handle((stats, e) -> {
+                    if (e == null) {
+                        circuitBreaker.onSuccess();
+                        fallbackCache.put(start, end, uris, unique, stats);
+                        return CompletableFuture.completedFuture(stats);
+                    }
+                    if (!StatCircuitBreaker.isServerFailure(e)) {
+                        circuitBreaker.onSuccess();
+                        return CompletableFuture.<StatDto[]>failedFuture(unwrap(e));
+                    }
+                    circuitBreaker.onFailure();
+                    return fallback(start, end, uris, unique, e);
+                })
+                .thenCompose(Function.identity());
     }
 
     public ResponseEntity<StatDto[]> getStats(String start, String end, String[] uris, boolean unique) {
-        Map<String, Object> parameters;
-        String path;
-        if (uris != null) {
-            parameters = Map.of(
-                    "start", start,
-                    "end", end,
-                    "uris", uris,
-                    "unique", unique
-            );
-            path = serverUrl + "/stats/?start={start}&end={end}&uris={uris}&unique={unique}";
-        } else {
-            parameters = Map.of(
-                    "start", start,
-                    "end", end,
-                    "unique", unique
-            );
-            path = serverUrl + "/stats/?start={start}&end={end}&unique={unique}";
+        return ResponseEntity.ok(await(getStatsAsync(start, end, uris, unique)));
+    }
+
+    private CompletableFuture<StatDto[]> fallback(String start, String end, String[] uris, boolean unique,
+                                                  Throwable cause) {
+        StatDto[] cached = fallbackCache.get(start, end, uris, unique);
+        if (cached == null) {
+            return CompletableFuture.failedFuture(unwrap(cause));
         }
+        log.debug("Сервис статистики недоступен, используются сохранённые значения: {}", cause.getMessage());
+        return CompletableFuture.completedFuture(cached);
+    }
 
-        ResponseEntity<StatDto[]> serverResponse = rest.getForEntity(path, StatDto[].class, parameters);
+    private CompletableFuture<Void> deliver(List<HitDto> hits, int attempt) {
+        if (!circuitBreaker.tryAcquire()) {
+            spill(hits);
+            return CompletableFuture.completedFuture(null);
+        }
+        return call(() -> hits.size() == 1 ? transport.sendHit(hits.get(0)) : transport.sendHits(hits))
+                .handle((ignored, e) -> {
+                    if (e == null) {
+                        circuitBreaker.onSuccess();
+                        if (!buffered && !spillover.isEmpty()) {
+                            drainSpillover();
+                        }
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    if (!StatCircuitBreaker.isServerFailure(e)) {
+                        circuitBreaker.onSuccess();
+                        log.warn("Сервис статистики отклонил {} хитов: {}", hits.size(), unwrap(e).getMessage());
+                        droppedHits.addAndGet(hits.size());
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    circuitBreaker.onFailure();
+                    if (attempt >= retryMaxAttempts) {
+                        spill(hits);
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    retryCounter.increment();
+                    return CompletableFuture.runAsync(() -> {
+                    }, CompletableFuture.delayedExecutor(backoff(attempt), TimeUnit.MILLISECONDS, retryExecutor))
+                            .thenCompose(done -> deliver(hits, attempt + 1));
+                })
+                .thenCompose(Function.identity());
+    }
 
-        if (serverResponse.getStatusCode().is2xxSuccessful()) {
-            return serverResponse;
+    /**
+     * Экспоненциальная задержка с полным разбросом, чтобы повторы разных клиентов не приходили одновременно.
+     */
+    private long backoff(int attempt) {
+        long ceiling = Math.min(retryMaxDelayMillis, retryBaseDelayMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private void spill(List<HitDto> hits) {
+        for (HitDto hit : hits) {
+            if (spillover.offer(hit)) {
+                spilledCounter.increment();
+            } else {
+                droppedHits.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Без буфера фонового сброса нет, поэтому отложенные хиты досылаются после первой удачной отправки;
+     * одновременно досылку ведёт только один поток, второй остаётся для повторов.
+     */
+    private void drainSpillover() {
+        if (retryExecutor.isShutdown() || !draining.compareAndSet(false, true)) {
+            return;
         }
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(serverResponse.getStatusCode());
-        if (serverResponse.hasBody()) {
-            return responseBuilder.body(serverResponse.getBody());
+        retryExecutor.execute(() -> {
+            try {
+                flushSafely();
+            } finally {
+                draining.set(false);
+            }
+        });
+    }
+
+    private void flushSafely() {
+        List<HitDto> batch = new ArrayList<>(batchSize);
+        while (circuitBreaker.isCallPermitted() && spillover.drainTo(batch, batchSize) > 0) {
+            send(batch);
+        }
+        while (buffered && buffer.drainTo(batch, batchSize) > 0) {
+            send(batch);
+        }
+    }
+
+    private void send(List<HitDto> batch) {
+        try {
+            deliver(List.copyOf(batch), 1).join();
+        } catch (RuntimeException e) {
+            log.warn("Не удалось отправить {} хитов в сервис статистики: {}", batch.size(), e.getMessage());
+            droppedHits.addAndGet(batch.size());
+        }
+        batch.clear();
+    }
+
+    private static <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> request) {
+        try {
+            return request.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
         }
-        return responseBuilder.build();
     }
 }
@@ -0,0 +1,92 @@
+package ru.practicum;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Последние успешно полученные от сервиса статистики значения по каждому uri и окну запроса. Границы окна
+ * округляются вниз до {@code stat-server.fallback.window-bucket-seconds}, чтобы запросы "до текущего момента"
+ * попадали в одну запись. Отдаются вместо ответа, когда сервис недоступен; вытесняются по давности обращения.
+ */
+@Component
+public class StatFallbackCache {
+
+    private static final String ALL_URIS = "*";
+
+    private final Map<String, List<StatDto>> stats;
+    private final long windowBucketMillis;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public StatFallbackCache(@Value("${stat-server.fallback.max-size:10000}") int maxSize,
+                             @Value("${stat-server.fallback.window-bucket-seconds:3600}") long windowBucketSeconds,
+                             MeterRegistry meterRegistry) {
+        this.windowBucketMillis = Math.max(1, windowBucketSeconds) * 1000;
+        this.stats = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<StatDto>> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.hitCounter = meterRegistry.counter("stat.client.fallback", "result", "hit");
+        this.missCounter = meterRegistry.counter("stat.client.fallback", "result", "miss");
+    }
+
+    public synchronized void put(String start, String end, String[] uris, boolean unique, StatDto[] response) {
+        String window = window(start, end);
+        if (uris == null) {
+            stats.put(key(window, ALL_URIS, unique), List.of(response));
+            return;
+        }
+        Map<String, List<StatDto>> byUri = new LinkedHashMap<>();
+        for (String uri : uris) {
+            byUri.put(uri, new ArrayList<>());
+        }
+        for (StatDto statDto : response) {
+            byUri.computeIfAbsent(statDto.getUri(), uri -> new ArrayList<>()).add(statDto);
+        }
+        byUri.forEach((uri, uriStats) -> stats.put(key(window, uri, unique), uriStats));
+    }
+
+    /**
+     * Возвращает сохранённые значения для известных uri или null, если не известен ни один.
+     */
+    public synchronized StatDto[] get(String start, String end, String[] uris, boolean unique) {
+        String window = window(start, end);
+        List<StatDto> result = new ArrayList<>();
+        boolean found = false;
+        for (String uri : uris != null ? uris : new String[]{ALL_URIS}) {
+            List<StatDto> uriStats = stats.get(key(window, uri, unique));
+            if (uriStats != null) {
+                result.addAll(uriStats);
+                found = true;
+            }
+        }
+        (found ? hitCounter : missCounter).increment();
+        return found ? result.toArray(new StatDto[0]) : null;
+    }
+
+    private String window(String start, String end) {
+        return bucket(start) + "|" + bucket(end);
+    }
+
+    private String bucket(String time) {
+        try {
+            return Long.toString(Math.floorDiv(TimeCodec.parseEpochMillis(time), windowBucketMillis));
+        } catch (DateTimeParseException e) {
+            return time;
+        }
+    }
+
+    private static String key(String window, String uri, boolean unique) {
+        return unique + "|" + window + "|" + uri;
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum;
+
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Способ доставки запросов в сервис статистики, выбирается свойством stat-server.client.type.
+ */
+public interface StatTransport {
+
+    CompletableFuture<Void> sendHit(HitDto hitDto);
+
+    CompletableFuture<Void> sendHits(List<HitDto> hitDtos);
+
+    CompletableFuture<StatDto[]> getStats(String start, String end, String[] uris, boolean unique);
+
+    static URI statsUri(String serverUrl, String start, String end, String[] uris, boolean unique) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(serverUrl)
+                .path("/stats")
+                .queryParam("start", start)
+                .queryParam("end", end)
+                .queryParam("unique", unique);
+        if (uris != null) {
+            builder.queryParam("uris", (Object[]) uris);
+        }
+        return builder.encode().build().toUri();
+    }
+}
@@ -0,0 +1,122 @@
+package ru.practicum;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Неблокирующий транспорт на WebClient и Reactor Netty: вызывающий поток не ждёт ответа сервиса статистики,
+ * число одновременных соединений ограничено пулом, простаивающие соединения живут keep-alive-ms.
+ */
+@Component
+@ConditionalOnProperty(name = "stat-server.client.type", havingValue = "webclient")
+public class WebClientStatTransport implements StatTransport {
+
+    private final String serverUrl;
+    private final ConnectionProvider connectionProvider;
+    private final WebClient webClient;
+    private final WireFormat format;
+    private final ObjectMapper cborMapper = new CBORMapper();
+
+    public WebClientStatTransport(@Value("${stat-server.url}") String serverUrl,
+                                  @Value("${stat-server.client.max-connections:50}") int maxConnections,
+                                  @Value("${stat-server.client.connect-timeout-ms:1000}") int connectTimeoutMillis,
+                                  @Value("${stat-server.client.read-timeout-ms:3000}") long readTimeoutMillis,
+                                  @Value("${stat-server.client.keep-alive-ms:30000}") long keepAliveMillis,
+                                  @Value("${stat-server.client.format:JSON}") WireFormat format) {
+        this.connectionProvider = ConnectionProvider.builder("stat-client")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(connectTimeoutMillis + readTimeoutMillis))
+                .maxIdleTime(Duration.ofMillis(keepAliveMillis))
+                .evictInBackground(Duration.ofMillis(keepAliveMillis))
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(Duration.ofMillis(readTimeoutMillis));
+        this.webClient = WebClient.builder()
+                .baseUrl(serverUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        this.serverUrl = serverUrl;
+        this.format = format;
+    }
+
+    public Mono<Void> postHit(HitDto hitDto) {
+        return format == WireFormat.CBOR ? postCbor("/hit", HitFrameMapper.toHitFrame(hitDto)) : post("/hit", hitDto);
+    }
+
+    public Mono<Void> postHits(List<HitDto> hitDtos) {
+        return format == WireFormat.CBOR
+                ? postCbor("/hits", HitFrameMapper.toHitFrames(hitDtos)) : post("/hits", hitDtos);
+    }
+
+    public Mono<StatDto[]> fetchStats(String start, String end, String[] uris, boolean unique) {
+        return webClient.get()
+                .uri(StatTransport.statsUri(serverUrl, start, end, uris, unique))
+                .retrieve()
+                .bodyToMono(StatDto[].class);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendHit(HitDto hitDto) {
+        return postHit(hitDto).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Void> sendHits(List<HitDto> hitDtos) {
+        return postHits(hitDtos).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<StatDto[]> getStats(String start, String end, String[] uris, boolean unique) {
+        return fetchStats(start, end, uris, unique).toFuture();
+    }
+
+    /**
+     * Кодек CBOR в WebFlux не умеет кодировать тело запроса, поэтому оно сериализуется заранее.
+     */
+    private Mono<Void> postCbor(String path, Object frames) {
+        byte[] body;
+        try {
+            body = cborMapper.writeValueAsBytes(frames);
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+        return post(path, MediaType.APPLICATION_CBOR, body);
+    }
+
+    private Mono<Void> post(String path, Object body) {
+        return post(path, MediaType.APPLICATION_JSON, body);
+    }
+
+    private Mono<Void> post(String path, MediaType contentType, Object body) {
+        return webClient.post()
+                .uri(path)
+                .contentType(contentType)
+                .bodyValue(body)
+                .retrieve()
+                .toBodilessEntity()
+                .then();
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionProvider.dispose();
+    }
+}
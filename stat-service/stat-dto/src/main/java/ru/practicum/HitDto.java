@@ -1,22 +1,69 @@
 package ru.practicum;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+
+/**
+ * Хит хранит время в миллисекундах от эпохи (UTC); строка "yyyy-MM-dd HH:mm:ss" появляется только в JSON.
+ * Время не задано - null, такой хит сервер отклоняет.
+ */
 @Getter
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class HitDto {
+    /** Длины полей - как у столбцов таблицы statistics. */
+    public static final int MAX_APP_LENGTH = 255;
+    public static final int MAX_URI_LENGTH = 255;
+    public static final int MAX_IP_LENGTH = 40;
+
+    @NotBlank
+    @Size(max = MAX_APP_LENGTH)
     private String app;
+    @NotBlank
+    @Size(max = MAX_URI_LENGTH)
     private String uri;
+    @NotBlank
+    @Size(max = MAX_IP_LENGTH)
     private String ip;
-    private String timestamp;
+    @JsonIgnore
+    @NotNull
+    private Long timestampMillis;
+
+    @JsonProperty("timestamp")
+    public String getTimestamp() {
+        return timestampMillis != null ? TimeCodec.formatEpochMillis(timestampMillis) : null;
+    }
+
+    @JsonProperty("timestamp")
+    public void setTimestamp(String timestamp) {
+        this.timestampMillis = timestamp != null ? TimeCodec.parseEpochMillis(timestamp) : null;
+    }
 
     @Override
     public String toString() {
-        return "HitDto{app= " + app + ", uri= " + uri + ", ip= " + ip + ", timestamp= " + timestamp + "}";
+        return "HitDto{app= " + app + ", uri= " + uri + ", ip= " + ip + ", timestamp= " + getTimestamp() + "}";
+    }
+
+    public static class HitDtoBuilder {
+        public HitDtoBuilder timestamp(String timestamp) {
+            this.timestampMillis = timestamp != null ? TimeCodec.parseEpochMillis(timestamp) : null;
+            return this;
+        }
+
+        public HitDtoBuilder timestamp(LocalDateTime timestamp) {
+            this.timestampMillis = timestamp != null ? TimeCodec.toEpochMillis(timestamp) : null;
+            return this;
+        }
     }
-}
\ No newline at end of file
+}
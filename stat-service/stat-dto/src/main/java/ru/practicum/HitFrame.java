@@ -0,0 +1,41 @@
+package ru.practicum;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * Хит в двоичном формате (application/cbor): массив [app, uri, ip, время в миллисекундах от эпохи, UTC]
+ * вместо объекта с именами полей и строковой датой. Без времени (null) хит отклоняется сервером.
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonFormat(shape = JsonFormat.Shape.ARRAY)
+@JsonPropertyOrder({"app", "uri", "ip", "timestamp"})
+public class HitFrame {
+    @NotBlank
+    @Size(max = HitDto.MAX_APP_LENGTH)
+    private String app;
+    @NotBlank
+    @Size(max = HitDto.MAX_URI_LENGTH)
+    private String uri;
+    @NotBlank
+    @Size(max = HitDto.MAX_IP_LENGTH)
+    private String ip;
+    @NotNull
+    private Long timestamp;
+
+    @Override
+    public String toString() {
+        return "HitFrame{app= " + app + ", uri= " + uri + ", ip= " + ip + ", timestamp= " + timestamp + "}";
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StatBucketDto {
+    private String start;
+    private long hits;
+
+    @Override
+    public String toString() {
+        return "StatBucketDto{start= " + start + ", hits= " + hits + "}";
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StatSeriesDto {
+    private String app;
+    private String uri;
+    private String interval;
+    private long hits;
+    private List<StatBucketDto> buckets;
+
+    @Override
+    public String toString() {
+        return "StatSeriesDto{app= " + app + ", uri= " + uri + ", interval= " + interval + ", hits= " + hits +
+                ", buckets= " + buckets + "}";
+    }
+}
@@ -0,0 +1,163 @@
+package ru.practicum;
+
+import lombok.experimental.UtilityClass;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Общий для всех сервисов формат дат "yyyy-MM-dd HH:mm:ss". Строки фиксированной длины разбираются
+ * и собираются вручную, без DateTimeFormatter и промежуточных объектов; время в миллисекундах
+ * считается от эпохи в UTC, как и во всех двоичных представлениях хитов.
+ */
+@UtilityClass
+public class TimeCodec {
+
+    public static final String PATTERN = "yyyy-MM-dd HH:mm:ss";
+    public static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(PATTERN);
+
+    private static final int LENGTH = PATTERN.length();
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    public static LocalDateTime parse(CharSequence text) {
+        checkShape(text);
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second);
+        } catch (RuntimeException e) {
+            throw new DateTimeParseException("Некорректная дата: " + text, text, 0, e);
+        }
+    }
+
+    /**
+     * Разбирает строку сразу в миллисекунды от эпохи, не создавая LocalDateTime.
+     */
+    public static long parseEpochMillis(CharSequence text) {
+        checkShape(text);
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+                || hour > 23 || minute > 59 || second > 59) {
+            throw new DateTimeParseException("Некорректная дата: " + text, text, 0);
+        }
+        return epochDay(year, month, day) * MILLIS_PER_DAY + ((hour * 60L + minute) * 60 + second) * 1000;
+    }
+
+    public static String format(LocalDateTime time) {
+        int year = time.getYear();
+        if (year < 0 || year > 9999) {
+            return time.format(FORMATTER);
+        }
+        char[] chars = new char[LENGTH];
+        write(chars, year, time.getMonthValue(), time.getDayOfMonth(), time.getHour(), time.getMinute(),
+                time.getSecond());
+        return new String(chars);
+    }
+
+    public static String formatEpochMillis(long epochMillis) {
+        long epochDay = Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+        int secondOfDay = (int) (Math.floorMod(epochMillis, MILLIS_PER_DAY) / 1000);
+        // Номер дня в дату по алгоритму civil_from_days (H. Hinnant)
+        long z = epochDay + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        if (year < 0 || year > 9999) {
+            return format(fromEpochMillis(epochMillis));
+        }
+        char[] chars = new char[LENGTH];
+        write(chars, (int) year, month, day, secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60);
+        return new String(chars);
+    }
+
+    public static long toEpochMillis(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1000 + time.getNano() / 1_000_000;
+    }
+
+    public static LocalDateTime fromEpochMillis(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000),
+                (int) Math.floorMod(epochMillis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private static void checkShape(CharSequence text) {
+        if (text == null) {
+            throw new DateTimeParseException("Дата не задана", "", 0);
+        }
+        if (text.length() != LENGTH || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != ' '
+                || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            throw new DateTimeParseException("Дата должна быть в формате " + PATTERN + ": " + text, text, 0);
+        }
+    }
+
+    private static int digits(CharSequence text, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new DateTimeParseException("Дата должна быть в формате " + PATTERN + ": " + text, text, i);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static void write(char[] chars, int year, int month, int day, int hour, int minute, int second) {
+        put(chars, 0, year, 4);
+        chars[4] = '-';
+        put(chars, 5, month, 2);
+        chars[7] = '-';
+        put(chars, 8, day, 2);
+        chars[10] = ' ';
+        put(chars, 11, hour, 2);
+        chars[13] = ':';
+        put(chars, 14, minute, 2);
+        chars[16] = ':';
+        put(chars, 17, second, 2);
+    }
+
+    private static void put(char[] chars, int from, int value, int count) {
+        for (int i = from + count - 1; i >= from; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum;
+
+import lombok.*;
+
+/**
+ * Оценка Space-Saving: истинное число хитов лежит в [hits - error, hits];
+ * guaranteed - uri гарантированно входит в top-n.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TopUriDto {
+    private String app;
+    private String uri;
+    private long hits;
+    private long error;
+    private boolean guaranteed;
+
+    @Override
+    public String toString() {
+        return "TopUriDto{app= " + app + ", uri= " + uri + ", hits= " + hits + ", error= " + error
+                + ", guaranteed= " + guaranteed + "}";
+    }
+}
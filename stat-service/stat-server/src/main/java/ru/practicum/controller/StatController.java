@@ -1,39 +1,128 @@
 package ru.practicum.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.HitDto;
+import ru.practicum.HitFrame;
 import ru.practicum.StatDto;
+import ru.practicum.StatSeriesDto;
+import ru.practicum.TimeCodec;
+import ru.practicum.TopUriDto;
 import ru.practicum.service.StatService;
 
+import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 @RestController
+@Validated
 @RequiredArgsConstructor
 @Slf4j
 public class StatController {
 
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final StatService statService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/hit")
     @ResponseStatus(HttpStatus.CREATED)
-    public void addRequest(@RequestBody HitDto hitDto) {
+    public void addRequest(@RequestBody @Valid HitDto hitDto) {
         statService.addHit(hitDto);
     }
 
+    @PostMapping("/hits")
+    @ResponseStatus(HttpStatus.CREATED)
+    public void addRequests(@RequestBody List<@Valid HitDto> hitDtos) {
+        statService.addHits(hitDtos);
+    }
+
+    @PostMapping(value = "/hit", consumes = MediaType.APPLICATION_CBOR_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public void addFrame(@RequestBody @Valid HitFrame hitFrame) {
+        statService.addHitFrame(hitFrame);
+    }
+
+    @PostMapping(value = "/hits", consumes = MediaType.APPLICATION_CBOR_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public void addFrames(@RequestBody List<@Valid HitFrame> hitFrames) {
+        statService.addHitFrames(hitFrames);
+    }
+
     @GetMapping("/stats")
     @ResponseStatus(HttpStatus.OK)
     public List<StatDto> getStats(
             @RequestParam String start,
             @RequestParam String end,
             @RequestParam(required = false) String[] uris,
-            @RequestParam(defaultValue = "false") boolean unique) {
-        return statService.getStats(LocalDateTime.parse(start, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")),
-                LocalDateTime.parse(end, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")), uris, unique);
+            @RequestParam(defaultValue = "false") boolean unique,
+            @RequestParam(defaultValue = "false") boolean approximate,
+            @RequestParam(required = false) Integer limit) {
+        return statService.getStats(TimeCodec.parse(start), TimeCodec.parse(end), uris, unique, approximate, limit);
+    }
+
+    @GetMapping("/stats/top")
+    @ResponseStatus(HttpStatus.OK)
+    public List<TopUriDto> getTopUris(
+            @RequestParam(defaultValue = "1h") String window,
+            @RequestParam(defaultValue = "10") int n,
+            @RequestParam(required = false) String app) {
+        return statService.getTopUris(window, n, app);
+    }
+
+    @GetMapping("/stats/series")
+    @ResponseStatus(HttpStatus.OK)
+    public List<StatSeriesDto> getSeries(
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam(defaultValue = "hour") String interval,
+            @RequestParam(required = false) String[] uris,
+            @RequestParam(required = false) String app) {
+        return statService.getSeries(TimeCodec.parse(start), TimeCodec.parse(end), interval, uris, app);
+    }
+
+    @GetMapping(value = "/stats", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamStats(
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam(required = false) String[] uris,
+            @RequestParam(defaultValue = "false") boolean unique,
+            @RequestParam(defaultValue = "false") boolean approximate,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean ndjson) {
+        LocalDateTime startTime = TimeCodec.parse(start);
+        LocalDateTime endTime = TimeCodec.parse(end);
+        statService.validateRange(startTime, endTime, limit);
+
+        StreamingResponseBody body = out -> {
+            ObjectWriter statWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            try (SequenceWriter writer = ndjson
+                    ? statWriter.withRootValueSeparator("\n").writeValues(out)
+                    : statWriter.writeValuesAsArray(out)) {
+                statService.streamStats(startTime, endTime, uris, unique, approximate, limit, statDto -> {
+                    try {
+                        writer.write(statDto);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(ndjson ? APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
 }
\ No newline at end of file
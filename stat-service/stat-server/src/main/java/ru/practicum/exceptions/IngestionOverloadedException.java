@@ -0,0 +1,9 @@
+package ru.practicum.exceptions;
+
+public class IngestionOverloadedException extends RuntimeException {
+
+    public IngestionOverloadedException(String message) {
+        super(message);
+    }
+
+}
@@ -1,15 +1,19 @@
 package ru.practicum.handler;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.practicum.TimeCodec;
 import ru.practicum.controller.StatController;
 import ru.practicum.exceptions.ApiError;
+import ru.practicum.exceptions.IngestionOverloadedException;
 import ru.practicum.exceptions.ValidationException;
 
+import javax.validation.ConstraintViolationException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.stream.Collectors;
 
 @RestControllerAdvice(assignableTypes = {StatController.class})
 public class ErrorHandler {
@@ -18,7 +22,31 @@ public class ErrorHandler {
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ApiError handleValidationException(ValidationException e) {
         return new ApiError("BAD_REQUEST", "Некорректный запрос",
-                e.getMessage(), LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+                e.getMessage(), TimeCodec.format(LocalDateTime.now()));
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiError handleMethodArgumentNotValidException(MethodArgumentNotValidException e) {
+        return new ApiError("BAD_REQUEST", "Некорректный хит",
+                e.getBindingResult().getFieldErrors().stream()
+                        .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                        .collect(Collectors.joining(", ")),
+                TimeCodec.format(LocalDateTime.now()));
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiError handleConstraintViolationException(ConstraintViolationException e) {
+        return new ApiError("BAD_REQUEST", "Некорректный хит",
+                e.getMessage(), TimeCodec.format(LocalDateTime.now()));
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ApiError handleIngestionOverloadedException(IngestionOverloadedException e) {
+        return new ApiError("SERVICE_UNAVAILABLE", "Сервис статистики перегружен",
+                e.getMessage(), TimeCodec.format(LocalDateTime.now()));
     }
 
 }
@@ -0,0 +1,12 @@
+package ru.practicum.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class BucketRange {
+    RollupGranularity granularity;
+    LocalDateTime from;
+    LocalDateTime to;
+}
@@ -2,19 +2,78 @@ package ru.practicum.model;
 
 import lombok.experimental.UtilityClass;
 import ru.practicum.HitDto;
+import ru.practicum.HitFrame;
+import ru.practicum.TimeCodec;
+import ru.practicum.exceptions.ValidationException;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 @UtilityClass
 public class HitMapper {
 
     public static Hit toHit(HitDto hitDto) {
-        return Hit.builder()
+        if (hitDto == null) {
+            throw new ValidationException("Пустой хит");
+        }
+        return validated(Hit.builder()
                 .app(hitDto.getApp())
                 .uri(hitDto.getUri())
                 .ip(hitDto.getIp())
-                .timestamp(LocalDateTime.parse(hitDto.getTimestamp(), DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")))
-                .build();
+                .timestamp(toTimestamp(hitDto.getTimestampMillis()))
+                .build());
+    }
+
+    public static Hit toHit(HitFrame hitFrame) {
+        if (hitFrame == null) {
+            throw new ValidationException("Пустой хит");
+        }
+        return validated(Hit.builder()
+                .app(hitFrame.getApp())
+                .uri(hitFrame.getUri())
+                .ip(hitFrame.getIp())
+                .timestamp(toTimestamp(hitFrame.getTimestamp()))
+                .build());
+    }
+
+    /**
+     * Причина, по которой хит нельзя записать в statistics, или null, если хит корректен.
+     */
+    public static String validate(Hit hit) {
+        if (hit.getTimestamp() == null) {
+            return "Не задано время хита";
+        }
+        String error = validate("app", hit.getApp(), HitDto.MAX_APP_LENGTH);
+        if (error == null) {
+            error = validate("uri", hit.getUri(), HitDto.MAX_URI_LENGTH);
+        }
+        if (error == null) {
+            error = validate("ip", hit.getIp(), HitDto.MAX_IP_LENGTH);
+        }
+        return error;
+    }
+
+    private static String validate(String field, String value, int maxLength) {
+        if (value == null || value.isBlank()) {
+            return "Не задано поле " + field;
+        }
+        if (value.length() > maxLength) {
+            return "Длина поля " + field + " больше " + maxLength;
+        }
+        return null;
+    }
+
+    private static Hit validated(Hit hit) {
+        String error = validate(hit);
+        if (error != null) {
+            throw new ValidationException(error);
+        }
+        return hit;
+    }
+
+    private static LocalDateTime toTimestamp(Long epochMillis) {
+        if (epochMillis == null) {
+            throw new ValidationException("Не задано время хита");
+        }
+        return TimeCodec.fromEpochMillis(epochMillis);
     }
 }
@@ -0,0 +1,174 @@
+package ru.practicum.model;
+
+import java.util.Arrays;
+
+/**
+ * Скетч HyperLogLog для приближённого подсчёта уникальных ip.
+ * Относительная ошибка оценки около 1.04 / sqrt(2^precision), скетчи одной точности объединяются без потерь.
+ * В байтах скетч хранится плотно (все регистры) или, пока ненулевых регистров мало, разреженно: по три байта
+ * (номер регистра и значение) на каждый ненулевой регистр.
+ */
+public class HyperLogLog {
+
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+
+    private static final int SPARSE_FLAG = 0x80;
+    private static final int SPARSE_ENTRY_BYTES = 3;
+    private static final int RANK_BITS = 6;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Точность HyperLogLog должна быть от " + MIN_PRECISION
+                    + " до " + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    private HyperLogLog(int precision, byte[] registers) {
+        this.precision = precision;
+        this.registers = registers;
+    }
+
+    public static int precisionFor(double relativeError) {
+        int precision = (int) Math.ceil(2 * Math.log(1.04 / relativeError) / Math.log(2));
+        return Math.max(MIN_PRECISION, Math.min(MAX_PRECISION, precision));
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        int header = bytes[0] & 0xFF;
+        int precision = header & ~SPARSE_FLAG;
+        if ((header & SPARSE_FLAG) == 0) {
+            return new HyperLogLog(precision, Arrays.copyOfRange(bytes, 1, bytes.length));
+        }
+        byte[] registers = new byte[1 << precision];
+        for (int i = 1; i + SPARSE_ENTRY_BYTES <= bytes.length; i += SPARSE_ENTRY_BYTES) {
+            int entry = (bytes[i] & 0xFF) << 16 | (bytes[i + 1] & 0xFF) << 8 | (bytes[i + 2] & 0xFF);
+            registers[entry >>> RANK_BITS] = (byte) (entry & ((1 << RANK_BITS) - 1));
+        }
+        return new HyperLogLog(precision, registers);
+    }
+
+    public byte[] toBytes() {
+        int nonZero = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                nonZero++;
+            }
+        }
+        if (nonZero * SPARSE_ENTRY_BYTES >= registers.length) {
+            byte[] bytes = new byte[registers.length + 1];
+            bytes[0] = (byte) precision;
+            System.arraycopy(registers, 0, bytes, 1, registers.length);
+            return bytes;
+        }
+        byte[] bytes = new byte[1 + nonZero * SPARSE_ENTRY_BYTES];
+        bytes[0] = (byte) (precision | SPARSE_FLAG);
+        int offset = 1;
+        for (int index = 0; index < registers.length; index++) {
+            if (registers[index] != 0) {
+                int entry = index << RANK_BITS | registers[index];
+                bytes[offset++] = (byte) (entry >>> 16);
+                bytes[offset++] = (byte) (entry >>> 8);
+                bytes[offset++] = (byte) entry;
+            }
+        }
+        return bytes;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public void add(String value) {
+        long hash = hash64(value);
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Объединяет скетчи, изменяя текущий. Если точности различаются, возвращается новый скетч меньшей точности.
+     */
+    public HyperLogLog union(HyperLogLog other) {
+        HyperLogLog target = precision <= other.precision ? this : reduce(other.precision);
+        HyperLogLog source = other.precision == target.precision ? other : other.reduce(target.precision);
+        for (int i = 0; i < target.registers.length; i++) {
+            if (source.registers[i] > target.registers[i]) {
+                target.registers[i] = source.registers[i];
+            }
+        }
+        return target;
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    private HyperLogLog reduce(int newPrecision) {
+        int shift = precision - newPrecision;
+        int droppedMask = (1 << shift) - 1;
+        byte[] reduced = new byte[1 << newPrecision];
+        for (int index = 0; index < registers.length; index++) {
+            if (registers[index] == 0) {
+                continue;
+            }
+            int dropped = index & droppedMask;
+            int rank = dropped != 0
+                    ? Integer.numberOfLeadingZeros(dropped) - (Integer.SIZE - shift) + 1
+                    : shift + registers[index];
+            int newIndex = index >>> shift;
+            if (rank > reduced[newIndex]) {
+                reduced[newIndex] = (byte) rank;
+            }
+        }
+        return new HyperLogLog(newPrecision, reduced);
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
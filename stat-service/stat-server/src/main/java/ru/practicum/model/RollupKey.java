@@ -0,0 +1,30 @@
+package ru.practicum.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+@Value
+public class RollupKey implements Comparable<RollupKey> {
+
+    private static final Comparator<RollupKey> ORDER = Comparator
+            .comparing(RollupKey::getGranularity)
+            .thenComparing(RollupKey::getBucketStart)
+            .thenComparing(RollupKey::getApp)
+            .thenComparing(RollupKey::getUri);
+
+    RollupGranularity granularity;
+    LocalDateTime bucketStart;
+    String app;
+    String uri;
+
+    public static RollupKey of(RollupGranularity granularity, Hit hit) {
+        return new RollupKey(granularity, granularity.floor(hit.getTimestamp()), hit.getApp(), hit.getUri());
+    }
+
+    @Override
+    public int compareTo(RollupKey other) {
+        return ORDER.compare(this, other);
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разбивает полуинтервал [from, to) на целые корзины агрегатов (от дней к минутам)
+ * и не более чем два «хвоста» по краям, которые приходится считать по сырым данным.
+ */
+public class RollupPlan {
+
+    private final RollupGranularity[] levels;
+    private final List<BucketRange> buckets = new ArrayList<>();
+    private final List<TimeRange> rawRanges = new ArrayList<>();
+
+    private RollupPlan(RollupGranularity[] levels) {
+        this.levels = levels;
+    }
+
+    public static RollupPlan of(LocalDateTime from, LocalDateTime to) {
+        return of(from, to, RollupGranularity.values());
+    }
+
+    public static RollupPlan of(LocalDateTime from, LocalDateTime to, RollupGranularity... levels) {
+        RollupPlan plan = new RollupPlan(levels);
+        plan.decompose(from, to, 0);
+        return plan;
+    }
+
+    public List<BucketRange> getBuckets() {
+        return buckets;
+    }
+
+    public List<TimeRange> getRawRanges() {
+        return rawRanges;
+    }
+
+    private void decompose(LocalDateTime from, LocalDateTime to, int level) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        if (level == levels.length) {
+            rawRanges.add(new TimeRange(from, to));
+            return;
+        }
+        RollupGranularity granularity = levels[level];
+        LocalDateTime first = granularity.ceil(from);
+        LocalDateTime last = granularity.floor(to);
+        if (first.isBefore(last)) {
+            buckets.add(new BucketRange(granularity, first, last));
+            decompose(from, first, level + 1);
+            decompose(last, to, level + 1);
+        } else {
+            decompose(from, to, level + 1);
+        }
+    }
+}
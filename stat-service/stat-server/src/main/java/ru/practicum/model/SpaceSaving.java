@@ -0,0 +1,110 @@
+package ru.practicum.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Алгоритм Space-Saving для поиска самых частых ключей в потоке с ограниченной памятью.
+ * Хранит не больше {@code capacity} счётчиков; оценка частоты завышена не более чем на total / capacity,
+ * а любой ключ с частотой выше total / capacity гарантированно присутствует в сводке.
+ */
+public class SpaceSaving {
+
+    private final int capacity;
+    private final Map<String, long[]> counters;
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void add(String key, long count) {
+        total += count;
+        long[] counter = counters.get(key);
+        if (counter != null) {
+            counter[0] += count;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new long[]{count, 0});
+            return;
+        }
+        String minKey = null;
+        long[] min = null;
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            if (min == null || entry.getValue()[0] < min[0]) {
+                minKey = entry.getKey();
+                min = entry.getValue();
+            }
+        }
+        counters.remove(minKey);
+        counters.put(key, new long[]{min[0] + count, min[0]});
+    }
+
+    public SpaceSaving copy() {
+        SpaceSaving copy = new SpaceSaving(capacity);
+        counters.forEach((key, counter) -> copy.counters.put(key, counter.clone()));
+        copy.total = total;
+        return copy;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Наименьший счётчик - верхняя граница частоты любого ключа, которого нет в сводке.
+     */
+    public long getMinCount() {
+        if (counters.size() < capacity) {
+            return 0;
+        }
+        return counters.values().stream().mapToLong(counter -> counter[0]).min().orElse(0);
+    }
+
+    /**
+     * Складывает сводки. Для каждого ключа возвращает {верхняя оценка частоты, максимальная ошибка}:
+     * если ключа нет в какой-то сводке, к оценке и ошибке добавляется её наименьший счётчик.
+     */
+    public static Map<String, long[]> merge(List<SpaceSaving> summaries) {
+        Map<String, long[]> estimates = new HashMap<>();
+        long missingBefore = 0;
+        for (SpaceSaving summary : summaries) {
+            long missing = summary.getMinCount();
+            for (Map.Entry<String, long[]> estimate : estimates.entrySet()) {
+                if (!summary.counters.containsKey(estimate.getKey())) {
+                    estimate.getValue()[0] += missing;
+                    estimate.getValue()[1] += missing;
+                }
+            }
+            for (Map.Entry<String, long[]> counter : summary.counters.entrySet()) {
+                long[] estimate = estimates.get(counter.getKey());
+                if (estimate == null) {
+                    estimate = new long[]{missingBefore, missingBefore};
+                    estimates.put(counter.getKey(), estimate);
+                }
+                estimate[0] += counter.getValue()[0];
+                estimate[1] += counter.getValue()[1];
+            }
+            missingBefore += missing;
+        }
+        return estimates;
+    }
+
+    /**
+     * Верхняя граница суммарной частоты ключа, которого нет ни в одной из сводок.
+     */
+    public static long missingBound(List<SpaceSaving> summaries) {
+        return summaries.stream().mapToLong(SpaceSaving::getMinCount).sum();
+    }
+
+    public static List<Map.Entry<String, long[]>> top(Map<String, long[]> estimates, int n) {
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>(estimates.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[0]).reversed());
+        return entries.subList(0, Math.min(n, entries.size()));
+    }
+}
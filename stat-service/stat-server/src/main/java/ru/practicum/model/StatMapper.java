@@ -1,7 +1,12 @@
 package ru.practicum.model;
 
 import lombok.experimental.UtilityClass;
+import ru.practicum.StatBucketDto;
 import ru.practicum.StatDto;
+import ru.practicum.StatSeriesDto;
+import ru.practicum.TimeCodec;
+
+import java.util.stream.Collectors;
 
 @UtilityClass
 public class StatMapper {
@@ -13,4 +18,16 @@ public class StatMapper {
                 .hits(stat.getHits().intValue())
                 .build();
     }
+
+    public static StatSeriesDto toStatSeriesDto(StatSeries series, RollupGranularity granularity) {
+        return StatSeriesDto.builder()
+                .app(series.getApp())
+                .uri(series.getUri())
+                .interval(granularity.name().toLowerCase())
+                .hits(series.getHits())
+                .buckets(series.getBuckets().entrySet().stream()
+                        .map(bucket -> new StatBucketDto(TimeCodec.format(bucket.getKey()), bucket.getValue()))
+                        .collect(Collectors.toList()))
+                .build();
+    }
 }
@@ -0,0 +1,25 @@
+package ru.practicum.model;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+@Getter
+public class StatSeries {
+    private final String app;
+    private final String uri;
+    private final NavigableMap<LocalDateTime, Long> buckets = new TreeMap<>();
+    private long hits;
+
+    public StatSeries(String app, String uri) {
+        this.app = app;
+        this.uri = uri;
+    }
+
+    public void add(LocalDateTime bucketStart, long count) {
+        buckets.merge(bucketStart, count, Long::sum);
+        hits += count;
+    }
+}
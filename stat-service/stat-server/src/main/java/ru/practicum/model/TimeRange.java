@@ -0,0 +1,11 @@
+package ru.practicum.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class TimeRange {
+    LocalDateTime from;
+    LocalDateTime to;
+}
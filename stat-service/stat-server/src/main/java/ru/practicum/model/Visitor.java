@@ -0,0 +1,10 @@
+package ru.practicum.model;
+
+import lombok.Value;
+
+@Value
+public class Visitor {
+    String app;
+    String uri;
+    String ip;
+}
@@ -0,0 +1,341 @@
+package ru.practicum.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.Hit;
+import ru.practicum.model.Stat;
+import ru.practicum.model.Visitor;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Встроенное колоночное хранилище хитов на локальном диске: каждая пачка записывается неизменяемым сегментом,
+ * сегменты близкого размера сливаются в фоновом потоке (новый сегмент помнит, какие сегменты заменил, чтобы после
+ * сбоя не учесть хиты дважды). Запросы читают только сегменты, пересекающиеся с диапазоном времени.
+ * Хранилище не участвует в транзакции БД, поэтому пачка записывается после коммита, а позиция журнала хитов
+ * в сегментах не даёт записать её повторно.
+ */
+@Slf4j
+@Repository
+@ConditionalOnProperty(name = "stats.store.type", havingValue = "columnar")
+public class ColumnarHitStore implements HitStore {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int compactThreshold;
+    private final int compactRows;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hit-compaction");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile List<HitSegment> segments = List.of();
+    private volatile long appliedPosition;
+    private long nextSegmentId;
+
+    public ColumnarHitStore(@Value("${stats.store.columnar.dir:data/hits}") String directory,
+                            @Value("${stats.store.columnar.compact-threshold:16}") int compactThreshold,
+                            @Value("${stats.store.columnar.compact-rows:1000000}") int compactRows) {
+        this.directory = Paths.get(directory);
+        this.compactThreshold = Math.max(2, compactThreshold);
+        this.compactRows = compactRows;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        List<HitSegment> opened = new ArrayList<>();
+        Set<Long> replaced = new HashSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.delete(file);
+                } else if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    HitSegment segment = HitSegment.open(file);
+                    opened.add(segment);
+                    Arrays.stream(segment.getReplacedSegmentIds()).forEach(replaced::add);
+                    nextSegmentId = Math.max(nextSegmentId, segmentId(file) + 1);
+                }
+            }
+        }
+        for (HitSegment segment : new ArrayList<>(opened)) {
+            if (replaced.contains(segmentId(segment.getPath()))) {
+                opened.remove(segment);
+                Files.deleteIfExists(segment.getPath());
+            }
+        }
+        opened.sort(Comparator.comparing(segment -> segment.getPath().getFileName().toString()));
+        segments = List.copyOf(opened);
+        appliedPosition = opened.stream().mapToLong(HitSegment::getWalPosition).max().orElse(0);
+        scheduleCompaction();
+        log.info("Открыто колоночное хранилище хитов {}: {} сегментов", directory.toAbsolutePath(), opened.size());
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        compactor.shutdown();
+        compactor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void append(List<Hit> hits) {
+        append(hits, 0);
+    }
+
+    @Override
+    public void append(List<Hit> hits, long position) {
+        if (hits.isEmpty()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            if (position > 0 && position <= appliedPosition) {
+                log.debug("Пачка из {} хитов до позиции журнала {} уже в хранилище", hits.size(), position);
+                return;
+            }
+            HitSegment segment = HitSegment.write(nextSegmentPath(), hits, position, new long[0]);
+            List<HitSegment> updated = new ArrayList<>(segments);
+            updated.add(segment);
+            segments = List.copyOf(updated);
+            appliedPosition = Math.max(appliedPosition, position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать сегмент хитов", e);
+        } finally {
+            writeLock.unlock();
+        }
+        scheduleCompaction();
+    }
+
+    @Override
+    public boolean isTransactional() {
+        return false;
+    }
+
+    @Override
+    public long getAppliedPosition() {
+        return appliedPosition;
+    }
+
+    @Override
+    public List<Stat> countHits(LocalDateTime from, LocalDateTime to, String[] uris) {
+        Map<String, Map<String, Long>> hitsByAppAndUri = new HashMap<>();
+        scan(from, to, uris, (app, uri, ip, micros) ->
+                hitsByAppAndUri.computeIfAbsent(app, key -> new HashMap<>()).merge(uri, 1L, Long::sum));
+
+        List<Stat> stats = new ArrayList<>();
+        hitsByAppAndUri.forEach((app, hitsByUri) ->
+                hitsByUri.forEach((uri, hits) -> stats.add(new Stat(app, uri, hits))));
+        return stats;
+    }
+
+    @Override
+    public List<Stat> countUniqueHits(LocalDateTime from, LocalDateTime to, String[] uris) {
+        Map<String, Map<String, Set<String>>> ipsByAppAndUri = new HashMap<>();
+        scan(from, to, uris, (app, uri, ip, micros) ->
+                ipsByAppAndUri.computeIfAbsent(app, key -> new HashMap<>())
+                        .computeIfAbsent(uri, key -> new HashSet<>())
+                        .add(ip));
+
+        List<Stat> stats = new ArrayList<>();
+        ipsByAppAndUri.forEach((app, ipsByUri) ->
+                ipsByUri.forEach((uri, ips) -> stats.add(new Stat(app, uri, (long) ips.size()))));
+        stats.sort(Comparator.comparing(Stat::getHits).reversed());
+        return stats;
+    }
+
+    @Override
+    public List<Visitor> findVisitors(LocalDateTime from, LocalDateTime to, String[] uris) {
+        Set<Visitor> visitors = new LinkedHashSet<>();
+        scan(from, to, uris, (app, uri, ip, micros) -> visitors.add(new Visitor(app, uri, ip)));
+        return new ArrayList<>(visitors);
+    }
+
+    /**
+     * Переписывает сегменты, в которых есть хиты раньше before, без этих хитов. Выполняется в потоке слияния,
+     * чтобы не пересекаться с ним; сегмент, от которого ничего не осталось, заменяется пустым с той же позицией
+     * журнала хитов, иначе после перезапуска хранилище забыло бы, до какой позиции оно записано.
+     */
+    @Override
+    public void deleteBefore(LocalDateTime before) {
+        long cutoffMicros = HitSegment.toMicros(before);
+        try {
+            int removed = compactor.submit(() -> trim(cutoffMicros)).get();
+            if (removed > 0) {
+                log.info("Из колоночного хранилища удалено {} хитов раньше {}", removed, before);
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Не удалось удалить хиты раньше " + before, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Не стримит: множества ip по всем парам app/uri всё равно собираются в памяти, чтобы посчитать уникальные.
+     */
+    @Override
+    public Stream<Stat> streamUniqueHits(LocalDateTime from, LocalDateTime to, String[] uris) {
+        return countUniqueHits(from, to, uris).stream();
+    }
+
+    private void scan(LocalDateTime from, LocalDateTime to, String[] uris, HitSegment.RowConsumer consumer) {
+        long fromMicros = HitSegment.toMicros(from);
+        long toMicros = HitSegment.toMicros(to);
+        for (HitSegment segment : segments) {
+            segment.scan(fromMicros, toMicros, uris, consumer);
+        }
+    }
+
+    private void scheduleCompaction() {
+        if (compactionScheduled.compareAndSet(false, true)) {
+            compactor.execute(this::compact);
+        }
+    }
+
+    private void compact() {
+        compactionScheduled.set(false);
+        try {
+            for (List<HitSegment> tier = nextTier(); tier != null; tier = nextTier()) {
+                merge(tier);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Не удалось слить сегменты хитов: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Сегменты делятся на уровни по порядку числа строк (по основанию compact-threshold). Уровень сливается,
+     * когда в нём набирается compact-threshold сегментов, поэтому каждая строка переписывается
+     * лишь логарифмическое число раз; сегменты от compact-rows строк больше не сливаются.
+     */
+    private List<HitSegment> nextTier() {
+        Map<Integer, List<HitSegment>> tiers = new HashMap<>();
+        for (HitSegment segment : segments) {
+            if (segment.getRowCount() < compactRows) {
+                tiers.computeIfAbsent(tierOf(segment.getRowCount()), key -> new ArrayList<>()).add(segment);
+            }
+        }
+        return tiers.entrySet().stream()
+                .filter(tier -> tier.getValue().size() >= compactThreshold)
+                .min(Map.Entry.comparingByKey())
+                .map(tier -> limitRows(tier.getValue()))
+                .orElse(null);
+    }
+
+    private List<HitSegment> limitRows(List<HitSegment> tier) {
+        List<HitSegment> selected = new ArrayList<>();
+        long rows = 0;
+        for (HitSegment segment : tier) {
+            if (selected.size() == compactThreshold || (selected.size() >= 2 && rows >= compactRows)) {
+                break;
+            }
+            selected.add(segment);
+            rows += segment.getRowCount();
+        }
+        return selected;
+    }
+
+    private int tierOf(int rowCount) {
+        int tier = 0;
+        for (long limit = compactThreshold; rowCount >= limit; limit *= compactThreshold) {
+            tier++;
+        }
+        return tier;
+    }
+
+    private void merge(List<HitSegment> merged) throws IOException {
+        List<Hit> hits = new ArrayList<>();
+        for (HitSegment segment : merged) {
+            hits.addAll(segment.readAll());
+        }
+        replace(merged, hits);
+        log.debug("Слито {} сегментов хитов ({} строк)", merged.size(), hits.size());
+    }
+
+    private int trim(long cutoffMicros) throws IOException {
+        int removed = 0;
+        for (HitSegment segment : segments) {
+            if (segment.getRowCount() == 0 || segment.getMinMicros() >= cutoffMicros) {
+                continue;
+            }
+            List<Hit> kept = new ArrayList<>();
+            for (Hit hit : segment.readAll()) {
+                if (HitSegment.toMicros(hit.getTimestamp()) >= cutoffMicros) {
+                    kept.add(hit);
+                }
+            }
+            replace(List.of(segment), kept);
+            removed += segment.getRowCount() - kept.size();
+        }
+        return removed;
+    }
+
+    /**
+     * Записывает hits новым сегментом вместо сегментов replaced; новый сегмент наследует их наибольшую позицию журнала.
+     */
+    private void replace(List<HitSegment> replaced, List<Hit> hits) throws IOException {
+        long[] replacedIds = replaced.stream().mapToLong(segment -> segmentId(segment.getPath())).toArray();
+        long position = replaced.stream().mapToLong(HitSegment::getWalPosition).max().orElse(0);
+        Path path;
+        writeLock.lock();
+        try {
+            path = nextSegmentPath();
+        } finally {
+            writeLock.unlock();
+        }
+        HitSegment segment = HitSegment.write(path, hits, position, replacedIds);
+        writeLock.lock();
+        try {
+            List<HitSegment> updated = new ArrayList<>(segments);
+            updated.removeAll(replaced);
+            updated.add(segment);
+            segments = List.copyOf(updated);
+        } finally {
+            writeLock.unlock();
+        }
+        for (HitSegment old : replaced) {
+            Files.deleteIfExists(old.getPath());
+        }
+    }
+
+    private Path nextSegmentPath() {
+        return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, nextSegmentId++, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentId(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.Hit;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class HitBatchRepository {
+
+    private static final String INSERT_PREFIX = "INSERT INTO statistics (app, uri, ip, timestamp) VALUES ";
+    private static final String ROW_VALUES = "(?, ?, ?, ?)";
+    private static final int ROWS_PER_STATEMENT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<Hit> hits) {
+        for (int from = 0; from < hits.size(); from += ROWS_PER_STATEMENT) {
+            List<Hit> chunk = hits.subList(from, Math.min(from + ROWS_PER_STATEMENT, hits.size()));
+            jdbcTemplate.update(insertStatement(chunk.size()), ps -> {
+                int index = 1;
+                for (Hit hit : chunk) {
+                    ps.setString(index++, hit.getApp());
+                    ps.setString(index++, hit.getUri());
+                    ps.setString(index++, hit.getIp());
+                    ps.setTimestamp(index++, Timestamp.valueOf(hit.getTimestamp()));
+                }
+            });
+        }
+    }
+
+    private static String insertStatement(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (ROW_VALUES.length() + 2));
+        sql.append(INSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_VALUES);
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.Hit;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Хиты, которые не удалось записать в statistics за отведённое число попыток. Хранятся как есть,
+ * без ограничений длины, вместе с позицией журнала и причиной, чтобы их можно было разобрать и дозаписать вручную.
+ */
+@Repository
+@RequiredArgsConstructor
+public class HitDeadLetterRepository {
+
+    private static final String INSERT = "INSERT INTO hit_dead_letters (app, uri, ip, timestamp, wal_position, " +
+            "error, created) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Сохраняет хиты вместе с причиной отказа для каждого.
+     */
+    public void save(List<Map.Entry<Hit, String>> rejected, long position) {
+        Timestamp created = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT, rejected, rejected.size(), (ps, entry) -> {
+            Hit hit = entry.getKey();
+            ps.setString(1, hit.getApp());
+            ps.setString(2, hit.getUri());
+            ps.setString(3, hit.getIp());
+            ps.setTimestamp(4, hit.getTimestamp() != null ? Timestamp.valueOf(hit.getTimestamp()) : null);
+            ps.setLong(5, position);
+            ps.setString(6, entry.getValue());
+            ps.setTimestamp(7, created);
+        });
+    }
+}
@@ -0,0 +1,119 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.BucketRange;
+import ru.practicum.model.RollupKey;
+import ru.practicum.model.Stat;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@Repository
+@RequiredArgsConstructor
+public class HitRollupRepository {
+
+    private static final String UPSERT = "INSERT INTO hit_rollups (granularity, bucket_start, app, uri, hits) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (granularity, bucket_start, app, uri) DO UPDATE SET hits = hit_rollups.hits + EXCLUDED.hits";
+
+    private static final RowMapper<Stat> STAT_MAPPER =
+            (rs, rowNum) -> new Stat(rs.getString("app"), rs.getString("uri"), rs.getLong("hits"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void addHits(List<Map.Entry<RollupKey, Long>> increments) {
+        jdbcTemplate.batchUpdate(UPSERT, increments, increments.size(), (ps, increment) -> {
+            RollupKey key = increment.getKey();
+            ps.setString(1, key.getGranularity().name());
+            ps.setTimestamp(2, Timestamp.valueOf(key.getBucketStart()));
+            ps.setString(3, key.getApp());
+            ps.setString(4, key.getUri());
+            ps.setLong(5, increment.getValue());
+        });
+    }
+
+    public int deleteBefore(LocalDateTime before) {
+        return jdbcTemplate.update("DELETE FROM hit_rollups WHERE bucket_start < ?", Timestamp.valueOf(before));
+    }
+
+    public List<Stat> sumHits(List<BucketRange> ranges, String[] uris) {
+        if (ranges.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object> args = new ArrayList<>();
+        return jdbcTemplate.query(sumSql(ranges, uris, args), STAT_MAPPER, args.toArray());
+    }
+
+    /**
+     * То же, что sumHits, но по убыванию числа хитов и курсором по {@code STREAM_FETCH_SIZE} строк.
+     * Поток нужно закрыть; читать его нужно в транзакции, иначе драйвер PostgreSQL загрузит весь результат сразу.
+     */
+    public Stream<Stat> streamSums(List<BucketRange> ranges, String[] uris) {
+        if (ranges.isEmpty()) {
+            return Stream.empty();
+        }
+        List<Object> args = new ArrayList<>();
+        String sql = sumSql(ranges, uris, args) + " ORDER BY hits DESC";
+        return jdbcTemplate.queryForStream(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(Integer.parseInt(StatRepository.STREAM_FETCH_SIZE));
+            new ArgumentPreparedStatementSetter(args.toArray()).setValues(ps);
+            return ps;
+        }, STAT_MAPPER);
+    }
+
+    private static String sumSql(List<BucketRange> ranges, String[] uris, List<Object> args) {
+        StringBuilder sql = new StringBuilder("SELECT app, uri, SUM(hits) AS hits FROM hit_rollups WHERE (");
+        for (int i = 0; i < ranges.size(); i++) {
+            BucketRange range = ranges.get(i);
+            if (i > 0) {
+                sql.append(" OR ");
+            }
+            sql.append("(granularity = ? AND bucket_start >= ? AND bucket_start < ?)");
+            args.add(range.getGranularity().name());
+            args.add(Timestamp.valueOf(range.getFrom()));
+            args.add(Timestamp.valueOf(range.getTo()));
+        }
+        sql.append(')');
+        if (uris != null) {
+            sql.append(" AND uri IN (").append(String.join(", ", Collections.nCopies(uris.length, "?"))).append(')');
+            Collections.addAll(args, (Object[]) uris);
+        }
+        return sql.append(" GROUP BY app, uri").toString();
+    }
+
+    public void forEachBucket(BucketRange range, String[] uris, String app, BucketConsumer consumer) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT app, uri, bucket_start, hits FROM hit_rollups " +
+                "WHERE granularity = ? AND bucket_start >= ? AND bucket_start < ?");
+        args.add(range.getGranularity().name());
+        args.add(Timestamp.valueOf(range.getFrom()));
+        args.add(Timestamp.valueOf(range.getTo()));
+        if (uris != null) {
+            sql.append(" AND uri IN (").append(String.join(", ", Collections.nCopies(uris.length, "?"))).append(')');
+            Collections.addAll(args, (Object[]) uris);
+        }
+        if (app != null) {
+            sql.append(" AND app = ?");
+            args.add(app);
+        }
+        jdbcTemplate.query(sql.toString(), rs -> {
+            consumer.accept(rs.getString("app"), rs.getString("uri"),
+                    rs.getTimestamp("bucket_start").toLocalDateTime(), rs.getLong("hits"));
+        }, args.toArray());
+    }
+
+    public interface BucketConsumer {
+        void accept(String app, String uri, LocalDateTime bucketStart, long hits);
+    }
+}
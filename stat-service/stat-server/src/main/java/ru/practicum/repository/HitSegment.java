@@ -0,0 +1,262 @@
+package ru.practicum.repository;
+
+import ru.practicum.model.Hit;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Неизменяемый сегмент колоночного хранилища хитов, читается через отображение файла в память.
+ * Формат: заголовок (magic, версия, число строк, min/max времени в микросекундах, позиция журнала хитов,
+ * до которой хиты попали в сегмент, номера сегментов, которые заменяет этот сегмент после слияния), словари app/uri/ip,
+ * столбцы номеров в словарях (int на строку) и столбец времени: строки отсортированы по времени,
+ * хранятся varint-дельты от предыдущего значения.
+ */
+class HitSegment {
+
+    private static final int MAGIC = 0x48534547;
+    private static final int VERSION = 2;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int rowCount;
+    private final long minMicros;
+    private final long maxMicros;
+    private final long walPosition;
+    private final long[] replacedSegmentIds;
+    private final String[] apps;
+    private final String[] uris;
+    private final String[] ips;
+    private final int appColumn;
+    private final int uriColumn;
+    private final int ipColumn;
+    private final int timeColumn;
+
+    private HitSegment(Path path, MappedByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+        ByteBuffer reader = buffer.duplicate();
+        int version = reader.getInt() == MAGIC ? reader.getInt() : 0;
+        if (version < 1 || version > VERSION) {
+            throw new IllegalStateException("Неизвестный формат сегмента хитов: " + path);
+        }
+        this.rowCount = reader.getInt();
+        this.minMicros = reader.getLong();
+        this.maxMicros = reader.getLong();
+        this.walPosition = version > 1 ? reader.getLong() : 0;
+        this.replacedSegmentIds = new long[reader.getInt()];
+        for (int i = 0; i < replacedSegmentIds.length; i++) {
+            replacedSegmentIds[i] = reader.getLong();
+        }
+        this.apps = readDictionary(reader);
+        this.uris = readDictionary(reader);
+        this.ips = readDictionary(reader);
+        this.appColumn = reader.position();
+        this.uriColumn = appColumn + rowCount * Integer.BYTES;
+        this.ipColumn = uriColumn + rowCount * Integer.BYTES;
+        this.timeColumn = ipColumn + rowCount * Integer.BYTES;
+    }
+
+    static HitSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new HitSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    static HitSegment write(Path path, List<Hit> hits, long walPosition, long[] replacedSegmentIds)
+            throws IOException {
+        List<Hit> sorted = new ArrayList<>(hits);
+        sorted.sort(Comparator.comparing(Hit::getTimestamp));
+        Map<String, Integer> apps = new LinkedHashMap<>();
+        Map<String, Integer> uris = new LinkedHashMap<>();
+        Map<String, Integer> ips = new LinkedHashMap<>();
+        for (Hit hit : sorted) {
+            apps.putIfAbsent(hit.getApp(), apps.size());
+            uris.putIfAbsent(hit.getUri(), uris.size());
+            ips.putIfAbsent(hit.getIp(), ips.size());
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            long minMicros = sorted.isEmpty() ? 0 : toMicros(sorted.get(0).getTimestamp());
+            long maxMicros = sorted.isEmpty() ? 0 : toMicros(sorted.get(sorted.size() - 1).getTimestamp());
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sorted.size());
+            out.writeLong(minMicros);
+            out.writeLong(maxMicros);
+            out.writeLong(walPosition);
+            out.writeInt(replacedSegmentIds.length);
+            for (long replacedSegmentId : replacedSegmentIds) {
+                out.writeLong(replacedSegmentId);
+            }
+            writeDictionary(out, apps);
+            writeDictionary(out, uris);
+            writeDictionary(out, ips);
+            for (Hit hit : sorted) {
+                out.writeInt(apps.get(hit.getApp()));
+            }
+            for (Hit hit : sorted) {
+                out.writeInt(uris.get(hit.getUri()));
+            }
+            for (Hit hit : sorted) {
+                out.writeInt(ips.get(hit.getIp()));
+            }
+            long previous = minMicros;
+            for (Hit hit : sorted) {
+                long micros = toMicros(hit.getTimestamp());
+                writeVarLong(out, micros - previous);
+                previous = micros;
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+        return open(path);
+    }
+
+    static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1000, ZoneOffset.UTC);
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    long getMinMicros() {
+        return minMicros;
+    }
+
+    long getWalPosition() {
+        return walPosition;
+    }
+
+    long[] getReplacedSegmentIds() {
+        return replacedSegmentIds;
+    }
+
+    /**
+     * Передаёт в consumer строки с временем из [fromMicros, toMicros) и uri из списка (null - любые uri).
+     */
+    void scan(long fromMicros, long toMicros, String[] uriFilter, RowConsumer consumer) {
+        if (rowCount == 0 || maxMicros < fromMicros || minMicros >= toMicros) {
+            return;
+        }
+        boolean[] uriMatches = matchUris(uriFilter);
+        if (uriMatches == null && uriFilter != null) {
+            return;
+        }
+        int position = timeColumn;
+        long micros = minMicros;
+        for (int row = 0; row < rowCount; row++) {
+            long delta = 0;
+            int shift = 0;
+            byte next;
+            do {
+                next = buffer.get(position++);
+                delta |= (long) (next & 0x7F) << shift;
+                shift += 7;
+            } while (next < 0);
+            micros += delta;
+            if (micros >= toMicros) {
+                return;
+            }
+            if (micros < fromMicros) {
+                continue;
+            }
+            int uri = buffer.getInt(uriColumn + row * Integer.BYTES);
+            if (uriMatches != null && !uriMatches[uri]) {
+                continue;
+            }
+            consumer.accept(apps[buffer.getInt(appColumn + row * Integer.BYTES)], uris[uri],
+                    ips[buffer.getInt(ipColumn + row * Integer.BYTES)], micros);
+        }
+    }
+
+    List<Hit> readAll() {
+        List<Hit> hits = new ArrayList<>(rowCount);
+        scan(Long.MIN_VALUE, Long.MAX_VALUE, null, (app, uri, ip, micros) -> hits.add(Hit.builder()
+                .app(app)
+                .uri(uri)
+                .ip(ip)
+                .timestamp(fromMicros(micros))
+                .build()));
+        return hits;
+    }
+
+    private boolean[] matchUris(String[] uriFilter) {
+        if (uriFilter == null) {
+            return null;
+        }
+        boolean[] matches = new boolean[uris.length];
+        boolean any = false;
+        for (String wanted : uriFilter) {
+            for (int i = 0; i < uris.length; i++) {
+                if (uris[i].equals(wanted)) {
+                    matches[i] = true;
+                    any = true;
+                }
+            }
+        }
+        return any ? matches : null;
+    }
+
+    private static String[] readDictionary(ByteBuffer reader) {
+        String[] values = new String[reader.getInt()];
+        for (int i = 0; i < values.length; i++) {
+            byte[] bytes = new byte[reader.getInt()];
+            reader.get(bytes);
+            values[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    private static void writeDictionary(DataOutputStream out, Map<String, Integer> dictionary) throws IOException {
+        out.writeInt(dictionary.size());
+        for (String value : dictionary.keySet()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    interface RowConsumer {
+        void accept(String app, String uri, String ip, long micros);
+    }
+}
@@ -0,0 +1,119 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.BucketRange;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupKey;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class HitSketchRepository {
+
+    private static final String INSERT = "INSERT INTO hit_sketches (granularity, bucket_start, app, uri, sketch) " +
+            "VALUES (?, ?, ?, ?, ?) ON CONFLICT (granularity, bucket_start, app, uri) DO NOTHING";
+    private static final String UPDATE = "UPDATE hit_sketches SET sketch = ? " +
+            "WHERE granularity = ? AND bucket_start = ? AND app = ? AND uri = ?";
+    private static final int KEYS_PER_SELECT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public int deleteBefore(LocalDateTime before) {
+        return jdbcTemplate.update("DELETE FROM hit_sketches WHERE bucket_start < ?", Timestamp.valueOf(before));
+    }
+
+    /**
+     * Создаёт строки для ещё не записанных скетчей со значением empty; существующие строки не трогает.
+     */
+    public void insertMissing(List<RollupKey> keys, byte[] empty) {
+        jdbcTemplate.batchUpdate(INSERT, keys, keys.size(), (ps, key) -> {
+            ps.setString(1, key.getGranularity().name());
+            ps.setTimestamp(2, Timestamp.valueOf(key.getBucketStart()));
+            ps.setString(3, key.getApp());
+            ps.setString(4, key.getUri());
+            ps.setBytes(5, empty);
+        });
+    }
+
+    /**
+     * Читает скетчи и блокирует их строки до конца транзакции. Ключи должны быть упорядочены так же, как RollupKey:
+     * строки блокируются в этом порядке, поэтому параллельные пачки не блокируют друг друга крест-накрест.
+     */
+    public Map<RollupKey, byte[]> findByKeysForUpdate(List<RollupKey> keys) {
+        Map<RollupKey, byte[]> sketches = new HashMap<>();
+        for (int from = 0; from < keys.size(); from += KEYS_PER_SELECT) {
+            List<RollupKey> chunk = keys.subList(from, Math.min(from + KEYS_PER_SELECT, keys.size()));
+            List<Object> args = new ArrayList<>(chunk.size() * 4);
+            for (RollupKey key : chunk) {
+                args.add(key.getGranularity().name());
+                args.add(Timestamp.valueOf(key.getBucketStart()));
+                args.add(key.getApp());
+                args.add(key.getUri());
+            }
+            String sql = "SELECT granularity, bucket_start, app, uri, sketch FROM hit_sketches " +
+                    "WHERE (granularity, bucket_start, app, uri) IN (" +
+                    String.join(", ", Collections.nCopies(chunk.size(), "(?, ?, ?, ?)")) + ") " +
+                    "ORDER BY granularity, bucket_start, app COLLATE \"C\", uri COLLATE \"C\" FOR UPDATE";
+            jdbcTemplate.query(sql, rs -> {
+                sketches.put(new RollupKey(RollupGranularity.valueOf(rs.getString("granularity")),
+                                rs.getTimestamp("bucket_start").toLocalDateTime(),
+                                rs.getString("app"), rs.getString("uri")),
+                        rs.getBytes("sketch"));
+            }, args.toArray());
+        }
+        return sketches;
+    }
+
+    public void update(List<Map.Entry<RollupKey, byte[]>> sketches) {
+        jdbcTemplate.batchUpdate(UPDATE, sketches, sketches.size(), (ps, sketch) -> {
+            RollupKey key = sketch.getKey();
+            ps.setBytes(1, sketch.getValue());
+            ps.setString(2, key.getGranularity().name());
+            ps.setTimestamp(3, Timestamp.valueOf(key.getBucketStart()));
+            ps.setString(4, key.getApp());
+            ps.setString(5, key.getUri());
+        });
+    }
+
+    public void forEachSketch(List<BucketRange> ranges, String[] uris, SketchConsumer consumer) {
+        if (ranges.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT app, uri, sketch FROM hit_sketches WHERE (");
+        for (int i = 0; i < ranges.size(); i++) {
+            BucketRange range = ranges.get(i);
+            if (i > 0) {
+                sql.append(" OR ");
+            }
+            sql.append("(granularity = ? AND bucket_start >= ? AND bucket_start < ?)");
+            args.add(range.getGranularity().name());
+            args.add(Timestamp.valueOf(range.getFrom()));
+            args.add(Timestamp.valueOf(range.getTo()));
+        }
+        sql.append(')');
+        if (uris != null) {
+            sql.append(" AND uri IN (").append(String.join(", ", Collections.nCopies(uris.length, "?"))).append(')');
+            Collections.addAll(args, (Object[]) uris);
+        }
+        jdbcTemplate.query(sql.toString(),
+                rs -> {
+                    consumer.accept(rs.getString("app"), rs.getString("uri"), rs.getBytes("sketch"));
+                },
+                args.toArray());
+    }
+
+    @FunctionalInterface
+    public interface SketchConsumer {
+        void accept(String app, String uri, byte[] sketch);
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.repository;
+
+import ru.practicum.model.Hit;
+import ru.practicum.model.Stat;
+import ru.practicum.model.Visitor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Хранилище сырых хитов. Все диапазоны времени полуоткрытые: [from, to); uris = null означает все uri.
+ */
+public interface HitStore {
+
+    void append(List<Hit> hits);
+
+    /**
+     * Добавляет пачку, прочитанную из журнала хитов до позиции position (0 - пачка не из журнала).
+     */
+    default void append(List<Hit> hits, long position) {
+        append(hits);
+    }
+
+    /**
+     * Пишет ли хранилище в транзакции БД. Остальные хранилища получают пачку только после коммита
+     * и сами помнят позицию журнала, до которой хиты уже записаны.
+     */
+    default boolean isTransactional() {
+        return true;
+    }
+
+    /**
+     * Позиция журнала хитов, до которой хиты уже в хранилище; для транзакционных хранилищ она хранится в БД.
+     */
+    default long getAppliedPosition() {
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Удаляет хиты раньше before. Для таблицы statistics ничего не делает: её старые дни удаляются секциями.
+     */
+    default void deleteBefore(LocalDateTime before) {
+    }
+
+    List<Stat> countHits(LocalDateTime from, LocalDateTime to, String[] uris);
+
+    List<Stat> countUniqueHits(LocalDateTime from, LocalDateTime to, String[] uris);
+
+    List<Visitor> findVisitors(LocalDateTime from, LocalDateTime to, String[] uris);
+
+    /**
+     * Число уникальных ip по убыванию. Поток нужно закрыть; для JPA он читается курсором внутри транзакции,
+     * колоночное хранилище собирает результат в памяти.
+     */
+    Stream<Stat> streamUniqueHits(LocalDateTime from, LocalDateTime to, String[] uris);
+}
@@ -0,0 +1,31 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Позиция журнала хитов, до которой хиты уже учтены в БД. Сдвигается в той же транзакции, что и запись пачки,
+ * поэтому повторное проигрывание журнала не учитывает хиты дважды.
+ */
+@Repository
+@RequiredArgsConstructor
+public class HitWalPositionRepository {
+
+    private static final String SELECT = "SELECT position FROM hit_wal_position WHERE id = 1";
+    private static final String ADVANCE = "UPDATE hit_wal_position SET position = ? WHERE id = 1 AND position < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public long getAppliedPosition() {
+        Long position = jdbcTemplate.queryForObject(SELECT, Long.class);
+        return position != null ? position : 0;
+    }
+
+    /**
+     * Сдвигает позицию вперёд; false, если пачка с этой позицией уже была записана.
+     */
+    public boolean advance(long position) {
+        return jdbcTemplate.update(ADVANCE, position, position) > 0;
+    }
+}
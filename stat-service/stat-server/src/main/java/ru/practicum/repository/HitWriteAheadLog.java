@@ -0,0 +1,262 @@
+package ru.practicum.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.Hit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+/**
+ * Журнал упреждающей записи хитов в отображённых в память файлах фиксированного размера.
+ * Запись: длина, CRC32 и тело (app, uri, ip, время). Позиция записи (LSN) - номер файла в старших 32 битах
+ * и смещение конца записи в младших. Checkpoint хранит позицию, до которой хиты уже записаны в БД и файлы
+ * журнала можно удалять; при старте проигрывается всё, что после неё и после позиции, сохранённой в самой БД.
+ */
+@Slf4j
+@Repository
+public class HitWriteAheadLog {
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean fsync;
+
+    private MappedByteBuffer active;
+    private long activeId;
+    private final Object checkpointLock = new Object();
+    private long checkpoint;
+
+    public HitWriteAheadLog(@Value("${stats.wal.enabled:true}") boolean enabled,
+                            @Value("${stats.wal.dir:data/wal}") String directory,
+                            @Value("${stats.wal.segment-bytes:16777216}") int segmentBytes,
+                            @Value("${stats.wal.fsync:false}") boolean fsync) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        Path checkpointFile = directory.resolve(CHECKPOINT_FILE);
+        if (Files.exists(checkpointFile)) {
+            checkpoint = Long.parseLong(Files.readString(checkpointFile).trim());
+        }
+        TreeSet<Long> segmentIds = segmentIds();
+        activeId = segmentIds.isEmpty() ? Math.max(1, checkpoint >>> 32) : segmentIds.last() + 1;
+        active = map(activeId);
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (active != null) {
+            active.force();
+        }
+    }
+
+    public synchronized long append(Hit hit) {
+        byte[] payload = encode(hit);
+        if (active.position() + HEADER_BYTES + payload.length > segmentBytes - Integer.BYTES) {
+            rotate();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        active.putInt(payload.length);
+        active.putInt((int) crc.getValue());
+        active.put(payload);
+        if (fsync) {
+            active.force();
+        }
+        return (activeId << 32) | active.position();
+    }
+
+    /**
+     * Гарантирует, что новые записи получат позиции больше position: нужно, если каталог журнала очищен,
+     * а в БД осталась позиция старого журнала.
+     */
+    public synchronized void startAfter(long position) {
+        if (!enabled || activeId > position >>> 32) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(segmentPath(activeId));
+            activeId = position >>> 32;
+            active = map(++activeId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось создать файл журнала хитов", e);
+        }
+    }
+
+    /**
+     * Передаёт в consumer пачки хитов, записанных после checkpoint и после позиции after, вместе с позицией
+     * конца каждой пачки. Чтение файла останавливается на первой неполной или повреждённой записи.
+     */
+    public void replay(int batchSize, long after, ReplayConsumer consumer) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        long from = Math.max(checkpoint, after);
+        for (long segmentId : segmentIds()) {
+            if (segmentId >= activeId || segmentId < (from >>> 32)) {
+                continue;
+            }
+            ByteBuffer buffer = read(segmentId);
+            if (segmentId == from >>> 32) {
+                if ((int) from > buffer.limit()) {
+                    continue;
+                }
+                buffer.position((int) from);
+            }
+            List<Hit> batch = new ArrayList<>(batchSize);
+            while (buffer.remaining() >= HEADER_BYTES) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Повреждённая запись в журнале хитов {}, смещение {}", segmentId, buffer.position());
+                    break;
+                }
+                batch.add(decode(payload));
+                if (batch.size() == batchSize) {
+                    consumer.accept(batch, (segmentId << 32) | buffer.position());
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            consumer.accept(batch, (segmentId + 1) << 32);
+        }
+    }
+
+    public void checkpoint(long position) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (checkpointLock) {
+            if (position <= checkpoint) {
+                return;
+            }
+            try {
+                Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+                Files.writeString(temp, Long.toString(position));
+                Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                checkpoint = position;
+                for (long segmentId : segmentIds().headSet(position >>> 32)) {
+                    Files.deleteIfExists(segmentPath(segmentId));
+                }
+            } catch (IOException e) {
+                log.warn("Не удалось сохранить позицию журнала хитов: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void rotate() {
+        active.force();
+        try {
+            active = map(++activeId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось создать файл журнала хитов", e);
+        }
+    }
+
+    private MappedByteBuffer map(long segmentId) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(segmentId), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+    }
+
+    private ByteBuffer read(long segmentId) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(segmentId), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private TreeSet<Long> segmentIds() throws IOException {
+        TreeSet<Long> ids = new TreeSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                ids.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                        name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        return ids;
+    }
+
+    private Path segmentPath(long segmentId) {
+        return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, segmentId, SEGMENT_SUFFIX));
+    }
+
+    private static byte[] encode(Hit hit) {
+        byte[] app = hit.getApp().getBytes(StandardCharsets.UTF_8);
+        byte[] uri = hit.getUri().getBytes(StandardCharsets.UTF_8);
+        byte[] ip = hit.getIp().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(3 * Integer.BYTES + app.length + uri.length + ip.length
+                + Long.BYTES + Integer.BYTES);
+        buffer.putInt(app.length).put(app);
+        buffer.putInt(uri.length).put(uri);
+        buffer.putInt(ip.length).put(ip);
+        buffer.putLong(hit.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(hit.getTimestamp().getNano());
+        return buffer.array();
+    }
+
+    private static Hit decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        return Hit.builder()
+                .app(readString(buffer))
+                .uri(readString(buffer))
+                .ip(readString(buffer))
+                .timestamp(LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC))
+                .build();
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public interface ReplayConsumer {
+        void accept(List<Hit> hits, long position);
+    }
+}
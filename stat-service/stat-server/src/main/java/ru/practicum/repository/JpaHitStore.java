@@ -0,0 +1,54 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.Hit;
+import ru.practicum.model.Stat;
+import ru.practicum.model.Visitor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "stats.store.type", havingValue = "jpa", matchIfMissing = true)
+public class JpaHitStore implements HitStore {
+
+    private final HitBatchRepository hitBatchRepository;
+    private final StatRepository statRepository;
+
+    @Override
+    public void append(List<Hit> hits) {
+        hitBatchRepository.insertAll(hits);
+    }
+
+    @Override
+    public List<Stat> countHits(LocalDateTime from, LocalDateTime to, String[] uris) {
+        return uris == null
+                ? statRepository.countAllUrisInRange(from, to)
+                : statRepository.countUrisInRange(uris, from, to);
+    }
+
+    @Override
+    public List<Stat> countUniqueHits(LocalDateTime from, LocalDateTime to, String[] uris) {
+        return uris == null
+                ? statRepository.countAllUniqueUrisInRange(from, to)
+                : statRepository.countUniqueUrisInRange(uris, from, to);
+    }
+
+    @Override
+    public List<Visitor> findVisitors(LocalDateTime from, LocalDateTime to, String[] uris) {
+        return uris == null
+                ? statRepository.findAllVisitorsInRange(from, to)
+                : statRepository.findVisitorsInRange(uris, from, to);
+    }
+
+    @Override
+    public Stream<Stat> streamUniqueHits(LocalDateTime from, LocalDateTime to, String[] uris) {
+        return uris == null
+                ? statRepository.streamAllUniqueUrisInRange(from, to)
+                : statRepository.streamUniqueUrisInRange(uris, from, to);
+    }
+}
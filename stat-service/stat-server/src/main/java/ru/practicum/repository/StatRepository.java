@@ -2,13 +2,22 @@ package ru.practicum.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.model.Hit;
 import ru.practicum.model.Stat;
+import ru.practicum.model.Visitor;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 public interface StatRepository extends JpaRepository<Hit, Long> {
+
+    String STREAM_FETCH_SIZE = "1000";
+
     @Query("SELECT new ru.practicum.model.Stat(s.app, s.uri, COUNT(s.uri)) " +
             "FROM Hit s " +
             "WHERE s.uri IN (?1) AND s.timestamp BETWEEN ?2 AND ?3 " +
@@ -18,10 +27,10 @@ public interface StatRepository extends JpaRepository<Hit, Long> {
 
     @Query("SELECT new ru.practicum.model.Stat(s.app, s.uri, COUNT(DISTINCT s.ip)) " +
             "FROM Hit s " +
-            "WHERE s.uri IN (?1) AND s.timestamp BETWEEN ?2 AND ?3 " +
-            "GROUP BY s.app, s.uri, s.ip " +
+            "WHERE s.uri IN (?1) AND s.timestamp >= ?2 AND s.timestamp < ?3 " +
+            "GROUP BY s.app, s.uri " +
             "ORDER BY COUNT(DISTINCT s.ip) DESC")
-    List<Stat> findUrisWithUniqueIp(String[] uri, LocalDateTime start, LocalDateTime end);
+    List<Stat> countUniqueUrisInRange(String[] uri, LocalDateTime from, LocalDateTime to);
 
     @Query("SELECT new ru.practicum.model.Stat(s.app, s.uri, COUNT(s.uri)) " +
             "FROM Hit s " +
@@ -32,8 +41,46 @@ public interface StatRepository extends JpaRepository<Hit, Long> {
 
     @Query("SELECT new ru.practicum.model.Stat(s.app, s.uri, COUNT(DISTINCT s.ip)) " +
             "FROM Hit s " +
-            "WHERE s.timestamp BETWEEN ?1 AND ?2 " +
-            "GROUP BY s.app, s.uri, s.ip " +
+            "WHERE s.timestamp >= ?1 AND s.timestamp < ?2 " +
+            "GROUP BY s.app, s.uri " +
+            "ORDER BY COUNT(DISTINCT s.ip) DESC")
+    List<Stat> countAllUniqueUrisInRange(LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT new ru.practicum.model.Stat(s.app, s.uri, COUNT(s.uri)) " +
+            "FROM Hit s " +
+            "WHERE s.uri IN (?1) AND s.timestamp >= ?2 AND s.timestamp < ?3 " +
+            "GROUP BY s.app, s.uri")
+    List<Stat> countUrisInRange(String[] uri, LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT new ru.practicum.model.Stat(s.app, s.uri, COUNT(s.uri)) " +
+            "FROM Hit s " +
+            "WHERE s.timestamp >= ?1 AND s.timestamp < ?2 " +
+            "GROUP BY s.app, s.uri")
+    List<Stat> countAllUrisInRange(LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT DISTINCT new ru.practicum.model.Visitor(s.app, s.uri, s.ip) " +
+            "FROM Hit s " +
+            "WHERE s.uri IN (?1) AND s.timestamp >= ?2 AND s.timestamp < ?3")
+    List<Visitor> findVisitorsInRange(String[] uri, LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT DISTINCT new ru.practicum.model.Visitor(s.app, s.uri, s.ip) " +
+            "FROM Hit s " +
+            "WHERE s.timestamp >= ?1 AND s.timestamp < ?2")
+    List<Visitor> findAllVisitorsInRange(LocalDateTime from, LocalDateTime to);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("SELECT new ru.practicum.model.Stat(s.app, s.uri, COUNT(DISTINCT s.ip)) " +
+            "FROM Hit s " +
+            "WHERE s.uri IN (?1) AND s.timestamp >= ?2 AND s.timestamp < ?3 " +
+            "GROUP BY s.app, s.uri " +
+            "ORDER BY COUNT(DISTINCT s.ip) DESC")
+    Stream<Stat> streamUniqueUrisInRange(String[] uri, LocalDateTime from, LocalDateTime to);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("SELECT new ru.practicum.model.Stat(s.app, s.uri, COUNT(DISTINCT s.ip)) " +
+            "FROM Hit s " +
+            "WHERE s.timestamp >= ?1 AND s.timestamp < ?2 " +
+            "GROUP BY s.app, s.uri " +
             "ORDER BY COUNT(DISTINCT s.ip) DESC")
-    List<Stat> findAllUrisWithUniqueIp(LocalDateTime start, LocalDateTime end);
-}
\ No newline at end of file
+    Stream<Stat> streamAllUniqueUrisInRange(LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,79 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Repository
+@RequiredArgsConstructor
+public class StatisticsPartitionRepository {
+
+    private static final String PARTITION_PREFIX = "statistics_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + day.format(PARTITION_SUFFIX);
+    }
+
+    public List<LocalDate> findPartitionDays() {
+        return jdbcTemplate.queryForList(
+                        "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                                "WHERE i.inhparent = 'statistics'::regclass AND c.relname LIKE ?",
+                        String.class, PARTITION_PREFIX + "%")
+                .stream()
+                .map(name -> LocalDate.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    public List<LocalDate> findDaysInDefaultPartition() {
+        return jdbcTemplate.queryForList(
+                        "SELECT DISTINCT CAST(date_trunc('day', timestamp) AS DATE) FROM statistics_default",
+                        Date.class)
+                .stream()
+                .map(Date::toLocalDate)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Создаёт дневную секцию. Хиты за этот день, попавшие в секцию по умолчанию, переносятся в новую секцию
+     * до её подключения, иначе PostgreSQL не позволит подключить пересекающийся диапазон.
+     */
+    @Transactional
+    public void createPartition(LocalDate day) {
+        String name = partitionName(day);
+        Timestamp from = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE statistics INCLUDING DEFAULTS)");
+        jdbcTemplate.update("WITH moved AS (DELETE FROM statistics_default WHERE timestamp >= ? AND timestamp < ? " +
+                "RETURNING id, app, uri, ip, timestamp) " +
+                "INSERT INTO " + name + " (id, app, uri, ip, timestamp) SELECT id, app, uri, ip, timestamp FROM moved",
+                from, to);
+        jdbcTemplate.execute("ALTER TABLE statistics ATTACH PARTITION " + name +
+                " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachHit(LocalDate day, RowCallbackHandler handler) {
+        jdbcTemplate.query("SELECT id, app, uri, ip, timestamp FROM " + partitionName(day) + " ORDER BY id", handler);
+    }
+
+    @Transactional
+    public void dropPartition(LocalDate day) {
+        String name = partitionName(day);
+        jdbcTemplate.execute("ALTER TABLE statistics DETACH PARTITION " + name);
+        jdbcTemplate.execute("DROP TABLE " + name);
+    }
+}
@@ -0,0 +1,132 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.model.Hit;
+import ru.practicum.model.HitMapper;
+import ru.practicum.repository.HitDeadLetterRepository;
+import ru.practicum.repository.HitStore;
+import ru.practicum.repository.HitWalPositionRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HitBatchWriter {
+
+    private final HitStore hitStore;
+    private final HitRollupService hitRollupService;
+    private final UniqueVisitorService uniqueVisitorService;
+    private final TrendingUriService trendingUriService;
+    private final HitWalPositionRepository hitWalPositionRepository;
+    private final HitDeadLetterRepository hitDeadLetterRepository;
+
+    /**
+     * Записывает пачку, прочитанную из журнала хитов до позиции position (0 - пачка не из журнала).
+     * Пачка с позицией не больше уже записанной в БД не пишется повторно. Нетранзакционное хранилище хитов
+     * и сводки в памяти получают пачку только после коммита; ошибка хранилища после коммита пробрасывается,
+     * и повтор пачки дозапишет её только туда.
+     */
+    @Transactional
+    public void write(List<Hit> hits, long position) {
+        if (hits.isEmpty()) {
+            return;
+        }
+        boolean applied = position <= 0 || hitWalPositionRepository.advance(position);
+        if (applied) {
+            record(hits, position);
+        } else {
+            log.debug("Пачка из {} хитов до позиции журнала {} уже записана", hits.size(), position);
+        }
+        publish(hits, position, applied);
+    }
+
+    /**
+     * Убирает пачку, которую не удалось записать, в hit_dead_letters и сдвигает позицию журнала за неё.
+     * При isolate в hit_dead_letters попадают только хиты, не прошедшие проверку HitMapper.validate, а остальные
+     * записываются как обычно; если таких хитов нет или isolate не задан, откладывается вся пачка с причиной error.
+     */
+    @Transactional
+    public void writeDeadLetters(List<Hit> hits, long position, String error, boolean isolate) {
+        if (position > 0 && !hitWalPositionRepository.advance(position)) {
+            publish(hits, position, false);
+            return;
+        }
+        List<Hit> valid = new ArrayList<>();
+        List<Map.Entry<Hit, String>> rejected = new ArrayList<>();
+        for (Hit hit : hits) {
+            String reason = isolate ? HitMapper.validate(hit) : null;
+            if (reason != null) {
+                rejected.add(Map.entry(hit, reason));
+            } else {
+                valid.add(hit);
+            }
+        }
+        if (rejected.isEmpty()) {
+            valid.forEach(hit -> rejected.add(Map.entry(hit, error)));
+            valid.clear();
+        }
+        hitDeadLetterRepository.save(rejected, position);
+        log.warn("{} хитов до позиции журнала {} отложены в hit_dead_letters: {}", rejected.size(), position,
+                rejected.get(0).getValue());
+        if (!valid.isEmpty()) {
+            record(valid, position);
+            publish(valid, position, true);
+        }
+    }
+
+    private void record(List<Hit> hits, long position) {
+        hitRollupService.record(hits);
+        uniqueVisitorService.record(hits);
+        if (hitStore.isTransactional()) {
+            hitStore.append(hits, position);
+        }
+    }
+
+    /**
+     * После коммита отдаёт пачку сводкам в памяти, если она записана в БД этим вызовом (applied), и затем
+     * нетранзакционному хранилищу, которое само пропускает уже записанные позиции. Сводки идут первыми:
+     * при повторе после ошибки хранилища позиция в БД уже сдвинута, и второго шанса у них не будет.
+     */
+    private void publish(List<Hit> hits, long position, boolean applied) {
+        afterCommit(() -> {
+            if (applied) {
+                trendingUriService.record(hits);
+            }
+            if (!hitStore.isTransactional()) {
+                hitStore.append(hits, position);
+            }
+        });
+    }
+
+    /**
+     * Позиция журнала, до которой пачки записаны и в БД, и в хранилище хитов: с неё начинается проигрывание.
+     */
+    public long getAppliedPosition() {
+        return Math.min(hitWalPositionRepository.getAppliedPosition(), hitStore.getAppliedPosition());
+    }
+
+    /**
+     * Наибольшая позиция журнала, уже учтённая где-либо: новые записи журнала должны идти после неё.
+     */
+    public long getLatestPosition() {
+        long applied = hitWalPositionRepository.getAppliedPosition();
+        return hitStore.isTransactional() ? applied : Math.max(applied, hitStore.getAppliedPosition());
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,324 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.exceptions.IngestionOverloadedException;
+import ru.practicum.exceptions.ValidationException;
+import ru.practicum.model.Hit;
+import ru.practicum.repository.HitWriteAheadLog;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Принимает хиты в ограниченную очередь и записывает их в БД пачками из отдельного потока.
+ * Пачка уходит в БД, когда набрано {@code batch-size} хитов или истекло {@code linger-ms} с момента первого хита.
+ * До подтверждения хит пишется в журнал {@link HitWriteAheadLog}; после записи пачки позиция журнала сдвигается.
+ * Неудачная пачка повторяется с растущей задержкой, а новые хиты до этого не принимаются, поэтому пачки
+ * записываются строго по порядку журнала и checkpoint не перескакивает незаписанные хиты. После
+ * {@code retry.max-attempts} неудачных попыток пачка уходит в hit_dead_letters, чтобы один плохой хит
+ * не останавливал приём навсегда; пока недоступна сама БД, отложить пачку тоже не удаётся и повторы продолжаются.
+ */
+@Slf4j
+@Component
+public class HitIngestionQueue {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final HitBatchWriter hitBatchWriter;
+    private final HitWriteAheadLog writeAheadLog;
+    private final BlockingQueue<PendingHit> queue;
+    private final Semaphore capacity;
+    private final Object appendLock = new Object();
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long offerTimeoutMillis;
+    private final long readWaitMillis;
+    private final long shutdownTimeoutMillis;
+    private final long retryBaseDelayMillis;
+    private final long retryMaxDelayMillis;
+    private final int retryMaxAttempts;
+
+    private final Counter acceptedHits;
+    private final Counter rejectedHits;
+    private final Counter writtenHits;
+    private final Counter failedHits;
+    private final Counter deadLetterHits;
+    private final DistributionSummary batchSizes;
+    private final Timer flushTimer;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final Object progress = new Object();
+    private long processed;
+
+    private volatile boolean running;
+    private volatile boolean flushRequested;
+    private volatile boolean stalled;
+    private Thread worker;
+
+    public HitIngestionQueue(HitBatchWriter hitBatchWriter,
+                             HitWriteAheadLog writeAheadLog,
+                             MeterRegistry meterRegistry,
+                             @Value("${stats.ingest.queue-capacity:10000}") int queueCapacity,
+                             @Value("${stats.ingest.batch-size:500}") int batchSize,
+                             @Value("${stats.ingest.linger-ms:50}") long lingerMillis,
+                             @Value("${stats.ingest.offer-timeout-ms:100}") long offerTimeoutMillis,
+                             @Value("${stats.ingest.read-wait-ms:1000}") long readWaitMillis,
+                             @Value("${stats.ingest.shutdown-timeout-ms:10000}") long shutdownTimeoutMillis,
+                             @Value("${stats.ingest.retry.base-delay-ms:100}") long retryBaseDelayMillis,
+                             @Value("${stats.ingest.retry.max-delay-ms:5000}") long retryMaxDelayMillis,
+                             @Value("${stats.ingest.retry.max-attempts:10}") int retryMaxAttempts) {
+        this.hitBatchWriter = hitBatchWriter;
+        this.writeAheadLog = writeAheadLog;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.capacity = new Semaphore(queueCapacity);
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.readWaitMillis = readWaitMillis;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        this.retryBaseDelayMillis = retryBaseDelayMillis;
+        this.retryMaxDelayMillis = retryMaxDelayMillis;
+        this.retryMaxAttempts = retryMaxAttempts;
+
+        this.acceptedHits = meterRegistry.counter("stats.ingest.hits", "result", "accepted");
+        this.rejectedHits = meterRegistry.counter("stats.ingest.hits", "result", "rejected");
+        this.writtenHits = meterRegistry.counter("stats.ingest.hits", "result", "written");
+        this.failedHits = meterRegistry.counter("stats.ingest.hits", "result", "failed");
+        this.deadLetterHits = meterRegistry.counter("stats.ingest.hits", "result", "dead-letter");
+        this.batchSizes = DistributionSummary.builder("stats.ingest.batch.size").register(meterRegistry);
+        this.flushTimer = Timer.builder("stats.ingest.batch.flush").register(meterRegistry);
+        Gauge.builder("stats.ingest.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        writeAheadLog.startAfter(hitBatchWriter.getLatestPosition());
+        running = true;
+        worker = new Thread(this::drainLoop, "hit-ingestion");
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.join(shutdownTimeoutMillis);
+        if (!queue.isEmpty()) {
+            log.warn("Не удалось записать {} хитов при остановке сервиса, они останутся в журнале", queue.size());
+        }
+    }
+
+    public void enqueue(Hit hit) {
+        enqueueAll(List.of(hit));
+    }
+
+    /**
+     * Принимает хиты одного запроса целиком или не принимает ни одного: места в очереди резервируются сразу
+     * на всю пачку, и все хиты пишутся в журнал подряд. Пачка больше очереди отклоняется как некорректная.
+     */
+    public void enqueueAll(List<Hit> hits) {
+        if (hits.isEmpty()) {
+            return;
+        }
+        if (hits.size() > queueCapacity) {
+            throw new ValidationException("В одном запросе можно передать не больше " + queueCapacity + " хитов");
+        }
+        if (!running) {
+            throw new IngestionOverloadedException("Сервис статистики останавливается");
+        }
+        if (stalled) {
+            rejectedHits.increment(hits.size());
+            throw new IngestionOverloadedException("Запись статистики в БД временно невозможна");
+        }
+        try {
+            if (!capacity.tryAcquire(hits.size(), offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejectedHits.increment(hits.size());
+                throw new IngestionOverloadedException("Очередь записи статистики переполнена");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IngestionOverloadedException("Запись статистики прервана");
+        }
+        synchronized (appendLock) {
+            List<PendingHit> pending = new ArrayList<>(hits.size());
+            try {
+                for (Hit hit : hits) {
+                    pending.add(new PendingHit(hit, writeAheadLog.isEnabled() ? writeAheadLog.append(hit) : 0));
+                }
+            } catch (RuntimeException e) {
+                capacity.release(hits.size());
+                throw e;
+            }
+            queue.addAll(pending);
+        }
+        enqueued.addAndGet(hits.size());
+        acceptedHits.increment(hits.size());
+    }
+
+    public void awaitPersisted() {
+        long target = enqueued.get();
+        long deadline = System.currentTimeMillis() + readWaitMillis;
+        synchronized (progress) {
+            while (processed < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    log.warn("Истекло время ожидания записи хитов: записано {} из {}", processed, target);
+                    return;
+                }
+                flushRequested = true;
+                try {
+                    progress.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void drainLoop() {
+        if (!replayWriteAheadLog()) {
+            return;
+        }
+        List<PendingHit> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                fillBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queue.drainTo(batch);
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                if (!flush(batch)) {
+                    return;
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void fillBatch(List<PendingHit> batch) throws InterruptedException {
+        PendingHit first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || flushRequested || !running) {
+                return;
+            }
+            PendingHit next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private boolean flush(List<PendingHit> batch) {
+        flushRequested = false;
+        List<Hit> hits = batch.stream().map(PendingHit::getHit).collect(Collectors.toList());
+        long position = batch.get(batch.size() - 1).getPosition();
+        if (!writeWithRetry(hits, position)) {
+            log.warn("Запись остановлена, {} хитов останутся в журнале до перезапуска", batch.size() + queue.size());
+            return false;
+        }
+        capacity.release(batch.size());
+        writtenHits.increment(batch.size());
+        batchSizes.record(batch.size());
+        writeAheadLog.checkpoint(position);
+        synchronized (progress) {
+            processed += batch.size();
+            progress.notifyAll();
+        }
+        return true;
+    }
+
+    private boolean replayWriteAheadLog() {
+        AtomicLong replayed = new AtomicLong();
+        try {
+            writeAheadLog.replay(batchSize, hitBatchWriter.getAppliedPosition(), (hits, position) -> {
+                if (!writeWithRetry(hits, position)) {
+                    throw new IllegalStateException("Проигрывание журнала хитов прервано");
+                }
+                writeAheadLog.checkpoint(position);
+                replayed.addAndGet(hits.size());
+            });
+        } catch (IOException | RuntimeException e) {
+            log.error("Не удалось проиграть журнал хитов, записано {}", replayed.get(), e);
+            return false;
+        }
+        if (replayed.get() > 0) {
+            log.info("Из журнала хитов восстановлено {} хитов", replayed.get());
+        }
+        return true;
+    }
+
+    /**
+     * Повторяет запись пачки, пока она не пройдёт; после retryMaxAttempts попыток откладывает её в
+     * hit_dead_letters: сначала только некорректные хиты, а если и это не помогло - всю пачку.
+     * false, если сервис остановлен раньше.
+     */
+    private boolean writeWithRetry(List<Hit> hits, long position) {
+        String lastError = null;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (attempt <= retryMaxAttempts) {
+                    flushTimer.record(() -> hitBatchWriter.write(hits, position));
+                } else {
+                    hitBatchWriter.writeDeadLetters(hits, position, lastError, attempt == retryMaxAttempts + 1);
+                    deadLetterHits.increment(hits.size());
+                }
+                stalled = false;
+                return true;
+            } catch (RuntimeException e) {
+                failedHits.increment(hits.size());
+                lastError = String.valueOf(e.getMessage());
+                if (!running) {
+                    log.error("Не удалось записать пачку из {} хитов при остановке сервиса", hits.size(), e);
+                    return false;
+                }
+                stalled = true;
+                long delay = Math.min(retryMaxDelayMillis, retryBaseDelayMillis << Math.min(attempt - 1, 20));
+                log.error("Не удалось записать пачку из {} хитов (попытка {}), повтор через {} мс",
+                        hits.size(), attempt, delay, e);
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class PendingHit {
+        private final Hit hit;
+        private final long position;
+    }
+}
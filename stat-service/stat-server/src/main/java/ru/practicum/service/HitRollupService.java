@@ -0,0 +1,157 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.practicum.model.Hit;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupKey;
+import ru.practicum.model.RollupPlan;
+import ru.practicum.model.Stat;
+import ru.practicum.model.TimeRange;
+import ru.practicum.repository.HitRollupRepository;
+import ru.practicum.repository.HitStore;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+@Service
+@RequiredArgsConstructor
+public class HitRollupService {
+
+    private static final int EDGE_URIS_PER_QUERY = 1000;
+
+    private final HitRollupRepository hitRollupRepository;
+    private final HitStore hitStore;
+
+    public void record(List<Hit> hits) {
+        Map<RollupKey, Long> increments = new TreeMap<>();
+        for (Hit hit : hits) {
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                increments.merge(RollupKey.of(granularity, hit), 1L, Long::sum);
+            }
+        }
+        hitRollupRepository.addHits(new ArrayList<>(increments.entrySet()));
+    }
+
+    public List<Stat> countHits(LocalDateTime start, LocalDateTime end, String[] uris) {
+        RollupPlan plan = RollupPlan.of(start, end.plusNanos(1000));
+        Map<String, Map<String, Long>> hitsByAppAndUri = new HashMap<>();
+
+        for (Stat stat : hitRollupRepository.sumHits(plan.getBuckets(), uris)) {
+            add(hitsByAppAndUri, stat);
+        }
+        for (TimeRange range : plan.getRawRanges()) {
+            for (Stat stat : hitStore.countHits(range.getFrom(), range.getTo(), uris)) {
+                add(hitsByAppAndUri, stat);
+            }
+        }
+
+        List<Stat> stats = new ArrayList<>();
+        hitsByAppAndUri.forEach((app, hitsByUri) ->
+                hitsByUri.forEach((uri, hits) -> stats.add(new Stat(app, uri, hits))));
+        stats.sort(Comparator.comparing(Stat::getHits).reversed());
+        return stats;
+    }
+
+    /**
+     * То же, что countHits, но без сборки всего результата в памяти: суммы по агрегатам читаются курсором
+     * по убыванию, а в памяти держатся только пары app/uri с хитами в сырых «хвостах» (меньше минуты с каждого
+     * края). Для них итог считается заранее, и они вставляются в поток на своё место. Поток нужно закрыть.
+     */
+    public Stream<Stat> streamHits(LocalDateTime start, LocalDateTime end, String[] uris) {
+        RollupPlan plan = RollupPlan.of(start, end.plusNanos(1000));
+        Map<String, Map<String, Long>> edgeHits = new HashMap<>();
+        for (TimeRange range : plan.getRawRanges()) {
+            for (Stat stat : hitStore.countHits(range.getFrom(), range.getTo(), uris)) {
+                add(edgeHits, stat);
+            }
+        }
+        if (edgeHits.isEmpty()) {
+            return hitRollupRepository.streamSums(plan.getBuckets(), uris);
+        }
+
+        Map<String, Map<String, Long>> edgeTotals = new HashMap<>();
+        edgeHits.forEach((app, hitsByUri) -> edgeTotals.put(app, new HashMap<>(hitsByUri)));
+        List<String> edgeUris = edgeHits.values().stream()
+                .flatMap(hitsByUri -> hitsByUri.keySet().stream())
+                .distinct()
+                .collect(Collectors.toList());
+        for (int from = 0; from < edgeUris.size(); from += EDGE_URIS_PER_QUERY) {
+            String[] chunk = edgeUris.subList(from, Math.min(from + EDGE_URIS_PER_QUERY, edgeUris.size()))
+                    .toArray(new String[0]);
+            for (Stat stat : hitRollupRepository.sumHits(plan.getBuckets(), chunk)) {
+                if (contains(edgeHits, stat)) {
+                    add(edgeTotals, stat);
+                }
+            }
+        }
+        List<Stat> edges = new ArrayList<>();
+        edgeTotals.forEach((app, hitsByUri) ->
+                hitsByUri.forEach((uri, hits) -> edges.add(new Stat(app, uri, hits))));
+        edges.sort(Comparator.comparing(Stat::getHits).reversed());
+
+        Stream<Stat> rollups = hitRollupRepository.streamSums(plan.getBuckets(), uris);
+        return mergeDescending(rollups.filter(stat -> !contains(edgeHits, stat)).iterator(), edges)
+                .onClose(rollups::close);
+    }
+
+    /**
+     * Сливает две последовательности, упорядоченные по убыванию хитов; sorted читается лениво.
+     */
+    private static Stream<Stat> mergeDescending(Iterator<Stat> sorted, List<Stat> extra) {
+        Iterator<Stat> merged = new Iterator<>() {
+            private Stat head;
+            private boolean headRead;
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < extra.size() || peek() != null;
+            }
+
+            @Override
+            public Stat next() {
+                Stat stat = peek();
+                if (index < extra.size() && (stat == null || extra.get(index).getHits() >= stat.getHits())) {
+                    return extra.get(index++);
+                }
+                if (stat == null) {
+                    throw new NoSuchElementException();
+                }
+                headRead = false;
+                return stat;
+            }
+
+            private Stat peek() {
+                if (!headRead) {
+                    head = sorted.hasNext() ? sorted.next() : null;
+                    headRead = true;
+                }
+                return head;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false);
+    }
+
+    private static boolean contains(Map<String, Map<String, Long>> hitsByAppAndUri, Stat stat) {
+        Map<String, Long> hitsByUri = hitsByAppAndUri.get(stat.getApp());
+        return hitsByUri != null && hitsByUri.containsKey(stat.getUri());
+    }
+
+    private static void add(Map<String, Map<String, Long>> hitsByAppAndUri, Stat stat) {
+        hitsByAppAndUri.computeIfAbsent(stat.getApp(), app -> new HashMap<>())
+                .merge(stat.getUri(), stat.getHits(), Long::sum);
+    }
+}
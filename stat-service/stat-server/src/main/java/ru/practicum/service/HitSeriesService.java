@@ -0,0 +1,103 @@
+package ru.practicum.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.practicum.exceptions.ValidationException;
+import ru.practicum.model.BucketRange;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupPlan;
+import ru.practicum.model.Stat;
+import ru.practicum.model.StatSeries;
+import ru.practicum.model.TimeRange;
+import ru.practicum.repository.HitRollupRepository;
+import ru.practicum.repository.HitStore;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Гистограмма хитов по uri с шагом в минуту, час или день. Целые интервалы берутся из агрегатов
+ * нужной гранулярности одним запросом, неполные интервалы на краях диапазона - из более мелких
+ * агрегатов и сырых данных.
+ */
+@Service
+public class HitSeriesService {
+
+    private final HitRollupRepository hitRollupRepository;
+    private final HitStore hitStore;
+    private final long maxBuckets;
+
+    public HitSeriesService(HitRollupRepository hitRollupRepository,
+                            HitStore hitStore,
+                            @Value("${stats.series.max-buckets:10000}") long maxBuckets) {
+        this.hitRollupRepository = hitRollupRepository;
+        this.hitStore = hitStore;
+        this.maxBuckets = maxBuckets;
+    }
+
+    public static RollupGranularity parseInterval(String interval) {
+        try {
+            return RollupGranularity.valueOf(interval.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Неизвестный интервал: " + interval + ", допустимы minute, hour, day");
+        }
+    }
+
+    public List<StatSeries> getSeries(LocalDateTime start, LocalDateTime end, RollupGranularity granularity,
+                                      String[] uris, String app) {
+        LocalDateTime to = end.plusNanos(1000);
+        if (granularity.between(granularity.floor(start), to) >= maxBuckets) {
+            throw new ValidationException("Слишком много интервалов в ответе, максимум " + maxBuckets);
+        }
+        Map<String, Map<String, StatSeries>> seriesByAppAndUri = new HashMap<>();
+
+        LocalDateTime first = granularity.ceil(start);
+        if (!first.isBefore(to)) {
+            addPartialBucket(seriesByAppAndUri, granularity, start, to, uris, app);
+        } else {
+            LocalDateTime last = granularity.floor(to);
+            addPartialBucket(seriesByAppAndUri, granularity, start, first, uris, app);
+            if (first.isBefore(last)) {
+                hitRollupRepository.forEachBucket(new BucketRange(granularity, first, last), uris, app,
+                        (bucketApp, uri, bucketStart, hits) ->
+                                series(seriesByAppAndUri, bucketApp, uri).add(bucketStart, hits));
+            }
+            addPartialBucket(seriesByAppAndUri, granularity, last, to, uris, app);
+        }
+
+        List<StatSeries> result = new ArrayList<>();
+        seriesByAppAndUri.values().forEach(seriesByUri -> result.addAll(seriesByUri.values()));
+        result.sort(Comparator.comparing(StatSeries::getHits).reversed());
+        return result;
+    }
+
+    private void addPartialBucket(Map<String, Map<String, StatSeries>> seriesByAppAndUri,
+                                  RollupGranularity granularity, LocalDateTime from, LocalDateTime to,
+                                  String[] uris, String app) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        LocalDateTime bucketStart = granularity.floor(from);
+        RollupPlan plan = RollupPlan.of(from, to, granularity.finer());
+        List<Stat> stats = new ArrayList<>(hitRollupRepository.sumHits(plan.getBuckets(), uris));
+        for (TimeRange range : plan.getRawRanges()) {
+            stats.addAll(hitStore.countHits(range.getFrom(), range.getTo(), uris));
+        }
+        for (Stat stat : stats) {
+            if (app == null || app.equals(stat.getApp())) {
+                series(seriesByAppAndUri, stat.getApp(), stat.getUri()).add(bucketStart, stat.getHits());
+            }
+        }
+    }
+
+    private static StatSeries series(Map<String, Map<String, StatSeries>> seriesByAppAndUri, String app,
+                                     String uri) {
+        return seriesByAppAndUri.computeIfAbsent(app, key -> new HashMap<>())
+                .computeIfAbsent(uri, key -> new StatSeries(app, uri));
+    }
+}
@@ -1,14 +1,35 @@
 package ru.practicum.service;
 
 import ru.practicum.HitDto;
+import ru.practicum.HitFrame;
 import ru.practicum.StatDto;
+import ru.practicum.StatSeriesDto;
+import ru.practicum.TopUriDto;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface StatService {
 
     void addHit(HitDto hitDto);
 
-    List<StatDto> getStats(LocalDateTime start, LocalDateTime end, String[] uris, boolean unique);
+    void addHits(List<HitDto> hitDtos);
+
+    void addHitFrame(HitFrame hitFrame);
+
+    void addHitFrames(List<HitFrame> hitFrames);
+
+    List<StatDto> getStats(LocalDateTime start, LocalDateTime end, String[] uris, boolean unique,
+                           boolean approximate, Integer limit);
+
+    List<TopUriDto> getTopUris(String window, int n, String app);
+
+    List<StatSeriesDto> getSeries(LocalDateTime start, LocalDateTime end, String interval, String[] uris,
+                                  String app);
+
+    void validateRange(LocalDateTime start, LocalDateTime end, Integer limit);
+
+    void streamStats(LocalDateTime start, LocalDateTime end, String[] uris, boolean unique,
+                     boolean approximate, Integer limit, Consumer<StatDto> consumer);
 }
\ No newline at end of file
@@ -2,17 +2,25 @@ package ru.practicum.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.HitDto;
+import ru.practicum.HitFrame;
 import ru.practicum.StatDto;
+import ru.practicum.StatSeriesDto;
+import ru.practicum.TopUriDto;
 import ru.practicum.exceptions.ValidationException;
+import ru.practicum.model.HitMapper;
+import ru.practicum.model.RollupGranularity;
 import ru.practicum.model.Stat;
 import ru.practicum.model.StatMapper;
-import ru.practicum.repository.StatRepository;
+import ru.practicum.repository.HitStore;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static ru.practicum.model.HitMapper.toHit;
 
@@ -20,33 +28,108 @@ import static ru.practicum.model.HitMapper.toHit;
 @RequiredArgsConstructor
 public class StatServiceImpl implements StatService {
 
-    private final StatRepository statRepository;
+    private final HitStore hitStore;
+    private final HitIngestionQueue hitIngestionQueue;
+    private final HitRollupService hitRollupService;
+    private final UniqueVisitorService uniqueVisitorService;
+    private final TrendingUriService trendingUriService;
+    private final HitSeriesService hitSeriesService;
 
     @Override
     public void addHit(HitDto hitDto) {
-        statRepository.save(toHit(hitDto));
+        hitIngestionQueue.enqueue(toHit(hitDto));
     }
 
     @Override
-    public List<StatDto> getStats(LocalDateTime start, LocalDateTime end, String[] uris, boolean unique) {
+    public void addHits(List<HitDto> hitDtos) {
+        hitIngestionQueue.enqueueAll(hitDtos.stream().map(HitMapper::toHit).collect(Collectors.toList()));
+    }
+
+    @Override
+    public void addHitFrame(HitFrame hitFrame) {
+        hitIngestionQueue.enqueue(HitMapper.toHit(hitFrame));
+    }
+
+    @Override
+    public void addHitFrames(List<HitFrame> hitFrames) {
+        hitIngestionQueue.enqueueAll(hitFrames.stream().map(HitMapper::toHit).collect(Collectors.toList()));
+    }
+
+    /**
+     * Чтения статистики не помечены readOnly, чтобы не уходить на реплику: после awaitPersisted хиты уже есть
+     * в основной БД, а реплика может ещё не получить их. То же для streamStats и getSeries.
+     */
+    @Override
+    @Transactional
+    public List<StatDto> getStats(LocalDateTime start, LocalDateTime end, String[] uris, boolean unique,
+                                  boolean approximate, Integer limit) {
         List<Stat> stats;
-        if (start.isAfter(end))
-            throw new ValidationException("Дата начала должна быть раньше даты окончания");
-        if (unique) {
-            if (uris == null) {
-                stats = statRepository.findAllUrisWithUniqueIp(start, end);
-            } else {
-                stats = statRepository.findUrisWithUniqueIp(uris, start, end);
-            }
+        validateRange(start, end, limit);
+        hitIngestionQueue.awaitPersisted();
+        if (unique && approximate && uniqueVisitorService.isEnabled()) {
+            stats = uniqueVisitorService.estimateUniqueHits(start, end, uris);
+        } else if (unique) {
+            stats = hitStore.countUniqueHits(start, end.plusNanos(1000), uris);
         } else {
-            if (uris == null) {
-                stats = statRepository.findAllUris(start, end);
-            } else {
-                stats = statRepository.findUris(uris, start, end);
-            }
+            stats = hitRollupService.countHits(start, end, uris);
         }
 
+        if (limit != null && stats.size() > limit) {
+            stats = stats.subList(0, limit);
+        }
         return !stats.isEmpty() ? stats.stream().map(StatMapper::toStatDto).collect(Collectors.toList())
                 : Collections.emptyList();
     }
+
+    @Override
+    @Transactional
+    public void streamStats(LocalDateTime start, LocalDateTime end, String[] uris, boolean unique,
+                            boolean approximate, Integer limit, Consumer<StatDto> consumer) {
+        validateRange(start, end, limit);
+        hitIngestionQueue.awaitPersisted();
+        try (Stream<Stat> stats = openStream(start, end, uris, unique, approximate)) {
+            (limit != null ? stats.limit(limit) : stats).map(StatMapper::toStatDto).forEach(consumer);
+        }
+    }
+
+    /**
+     * Неуникальные хиты считаются, как и в getStats, по агрегатам и сырым «хвостам», поэтому оба режима
+     * дают одинаковые числа, в том числе после удаления старых партиций; суммы агрегатов читаются курсором.
+     * Уникальные ip читаются курсором только из JPA-хранилища. Оценка по HLL (approximate) и колоночное
+     * хранилище не стримят: результат собирается в памяти, её расход растёт с числом пар app/uri в ответе.
+     */
+    private Stream<Stat> openStream(LocalDateTime start, LocalDateTime end, String[] uris, boolean unique,
+                                    boolean approximate) {
+        if (!unique) {
+            return hitRollupService.streamHits(start, end, uris);
+        }
+        return approximate && uniqueVisitorService.isEnabled()
+                ? uniqueVisitorService.estimateUniqueHits(start, end, uris).stream()
+                : hitStore.streamUniqueHits(start, end.plusNanos(1000), uris);
+    }
+
+    @Override
+    public List<TopUriDto> getTopUris(String window, int n, String app) {
+        return trendingUriService.getTopUris(window, n, app);
+    }
+
+    @Override
+    @Transactional
+    public List<StatSeriesDto> getSeries(LocalDateTime start, LocalDateTime end, String interval, String[] uris,
+                                         String app) {
+        validateRange(start, end, null);
+        RollupGranularity granularity = HitSeriesService.parseInterval(interval);
+        hitIngestionQueue.awaitPersisted();
+        return hitSeriesService.getSeries(start, end, granularity, uris, app).stream()
+                .map(series -> StatMapper.toStatSeriesDto(series, granularity))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void validateRange(LocalDateTime start, LocalDateTime end, Integer limit) {
+        if (start.isAfter(end))
+            throw new ValidationException("Дата начала должна быть раньше даты окончания");
+        if (limit != null && limit <= 0)
+            throw new ValidationException("Параметр limit должен быть положительным");
+    }
 }
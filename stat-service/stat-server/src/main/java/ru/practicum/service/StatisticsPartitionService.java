@@ -0,0 +1,166 @@
+package ru.practicum.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.practicum.repository.HitRollupRepository;
+import ru.practicum.repository.HitSketchRepository;
+import ru.practicum.repository.HitStore;
+import ru.practicum.repository.StatisticsPartitionRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Поддерживает дневные секции таблицы statistics: заранее создаёт секции на {@code days-ahead} дней вперёд,
+ * выносит из секции по умолчанию хиты за дни без своей секции и удаляет секции старше {@code retention-days}.
+ * Старые дни из секции по умолчанию тоже сначала выносятся в свою секцию, чтобы выгрузиться и удалиться как
+ * остальные. Если задан {@code archive-dir}, перед удалением секция выгружается туда в сжатый CSV.
+ * Тот же срок применяется к колоночному хранилищу хитов, а агрегаты и скетчи хранятся
+ * {@code rollup-retention-days} (по умолчанию столько же).
+ */
+@Slf4j
+@Service
+public class StatisticsPartitionService {
+
+    private final StatisticsPartitionRepository partitionRepository;
+    private final HitStore hitStore;
+    private final HitRollupRepository hitRollupRepository;
+    private final HitSketchRepository hitSketchRepository;
+    private final int daysAhead;
+    private final int retentionDays;
+    private final int rollupRetentionDays;
+    private final String archiveDir;
+
+    public StatisticsPartitionService(StatisticsPartitionRepository partitionRepository,
+                                      HitStore hitStore,
+                                      HitRollupRepository hitRollupRepository,
+                                      HitSketchRepository hitSketchRepository,
+                                      @Value("${stats.partitions.days-ahead:7}") int daysAhead,
+                                      @Value("${stats.partitions.retention-days:0}") int retentionDays,
+                                      @Value("${stats.partitions.rollup-retention-days:${stats.partitions.retention-days:0}}")
+                                      int rollupRetentionDays,
+                                      @Value("${stats.partitions.archive-dir:}") String archiveDir) {
+        this.partitionRepository = partitionRepository;
+        this.hitStore = hitStore;
+        this.hitRollupRepository = hitRollupRepository;
+        this.hitSketchRepository = hitSketchRepository;
+        this.daysAhead = daysAhead;
+        this.retentionDays = retentionDays;
+        this.rollupRetentionDays = rollupRetentionDays;
+        this.archiveDir = archiveDir;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${stats.partitions.maintenance-cron:0 5 0 * * *}")
+    public synchronized void maintainPartitions() {
+        LocalDate today = LocalDate.now();
+        LocalDate retainFrom = retentionDays > 0 ? today.minusDays(retentionDays) : null;
+        Set<LocalDate> existing = new HashSet<>(partitionRepository.findPartitionDays());
+
+        Set<LocalDate> wanted = new TreeSet<>(partitionRepository.findDaysInDefaultPartition());
+        for (int i = 0; i <= daysAhead; i++) {
+            wanted.add(today.plusDays(i));
+        }
+        for (LocalDate day : wanted) {
+            if (existing.contains(day)) {
+                continue;
+            }
+            try {
+                partitionRepository.createPartition(day);
+                existing.add(day);
+                log.info("Создана секция статистики {}", StatisticsPartitionRepository.partitionName(day));
+            } catch (DataAccessException e) {
+                log.warn("Не удалось создать секцию статистики за {}: {}", day, e.getMessage());
+            }
+        }
+
+        if (retainFrom != null) {
+            new TreeSet<>(existing).headSet(retainFrom).forEach(this::expirePartition);
+            expireStoredHits(retainFrom);
+        }
+        if (rollupRetentionDays > 0) {
+            expireRollups(today.minusDays(rollupRetentionDays));
+        }
+    }
+
+    private void expireStoredHits(LocalDate retainFrom) {
+        try {
+            hitStore.deleteBefore(retainFrom.atStartOfDay());
+        } catch (RuntimeException e) {
+            log.warn("Не удалось удалить хиты раньше {} из хранилища хитов: {}", retainFrom, e.getMessage());
+        }
+    }
+
+    private void expireRollups(LocalDate retainFrom) {
+        try {
+            int rollups = hitRollupRepository.deleteBefore(retainFrom.atStartOfDay());
+            int sketches = hitSketchRepository.deleteBefore(retainFrom.atStartOfDay());
+            log.info("Удалены агрегаты хитов раньше {}: {} агрегатов, {} скетчей", retainFrom, rollups, sketches);
+        } catch (DataAccessException e) {
+            log.warn("Не удалось удалить агрегаты хитов раньше {}: {}", retainFrom, e.getMessage());
+        }
+    }
+
+    private void expirePartition(LocalDate day) {
+        String name = StatisticsPartitionRepository.partitionName(day);
+        try {
+            if (!archiveDir.isBlank()) {
+                Path archive = archivePartition(day);
+                log.info("Секция статистики {} выгружена в {}", name, archive);
+            }
+            partitionRepository.dropPartition(day);
+            log.info("Удалена секция статистики {}", name);
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Не удалось выгрузить секцию статистики {}, секция не удалена", name, e);
+        } catch (DataAccessException e) {
+            log.warn("Не удалось удалить секцию статистики {}: {}", name, e.getMessage());
+        }
+    }
+
+    private Path archivePartition(LocalDate day) throws IOException {
+        Path dir = Paths.get(archiveDir);
+        Files.createDirectories(dir);
+        String name = StatisticsPartitionRepository.partitionName(day);
+        Path target = dir.resolve(name + ".csv.gz");
+        Path temp = dir.resolve(name + ".csv.gz.tmp");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(temp)), StandardCharsets.UTF_8))) {
+            writer.write("id,app,uri,ip,timestamp\n");
+            partitionRepository.forEachHit(day, rs -> {
+                try {
+                    writer.write(rs.getLong("id") + "," + csv(rs.getString("app")) + "," + csv(rs.getString("uri"))
+                            + "," + csv(rs.getString("ip")) + "," + rs.getTimestamp("timestamp").toLocalDateTime()
+                            + "\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        return Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
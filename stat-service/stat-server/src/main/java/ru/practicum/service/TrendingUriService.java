@@ -0,0 +1,126 @@
+package ru.practicum.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Service;
+import ru.practicum.TopUriDto;
+import ru.practicum.exceptions.ValidationException;
+import ru.practicum.model.Hit;
+import ru.practicum.model.SpaceSaving;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Самые посещаемые uri за скользящее окно. Хиты раскладываются по кольцу временных корзин,
+ * в каждой корзине своя сводка Space-Saving; запрос складывает сводки корзин, попавших в окно.
+ */
+@Service
+public class TrendingUriService {
+
+    private static final String KEY_SEPARATOR = "\u0000";
+
+    private final long bucketSeconds;
+    private final int capacity;
+    private final Duration maxWindow;
+    private final Bucket[] buckets;
+
+    public TrendingUriService(@Value("${stats.top.bucket-seconds:300}") long bucketSeconds,
+                              @Value("${stats.top.max-window:24h}") String maxWindow,
+                              @Value("${stats.top.capacity:200}") int capacity) {
+        this.bucketSeconds = bucketSeconds;
+        this.capacity = capacity;
+        this.maxWindow = DurationStyle.detectAndParse(maxWindow);
+        this.buckets = new Bucket[(int) (this.maxWindow.getSeconds() / bucketSeconds) + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    public void record(List<Hit> hits) {
+        long current = bucketOf(LocalDateTime.now());
+        for (Hit hit : hits) {
+            long bucketNumber = bucketOf(hit.getTimestamp());
+            if (bucketNumber > current || current - bucketNumber >= buckets.length) {
+                continue;
+            }
+            Bucket bucket = buckets[(int) (bucketNumber % buckets.length)];
+            synchronized (bucket) {
+                if (bucket.number < bucketNumber) {
+                    bucket.number = bucketNumber;
+                    bucket.summary = new SpaceSaving(capacity);
+                } else if (bucket.number > bucketNumber) {
+                    continue;
+                }
+                bucket.summary.add(hit.getApp() + KEY_SEPARATOR + hit.getUri(), 1);
+            }
+        }
+    }
+
+    public List<TopUriDto> getTopUris(String window, int n, String app) {
+        Duration duration;
+        try {
+            duration = DurationStyle.detectAndParse(window);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Неверный формат окна: " + window);
+        }
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(maxWindow) > 0) {
+            throw new ValidationException("Окно должно быть больше нуля и не больше " + maxWindow);
+        }
+        if (n <= 0) {
+            throw new ValidationException("Параметр n должен быть положительным");
+        }
+
+        long current = bucketOf(LocalDateTime.now());
+        long first = current - (duration.getSeconds() + bucketSeconds - 1) / bucketSeconds + 1;
+        List<SpaceSaving> summaries = new ArrayList<>();
+        for (long bucketNumber = first; bucketNumber <= current; bucketNumber++) {
+            Bucket bucket = buckets[(int) (bucketNumber % buckets.length)];
+            synchronized (bucket) {
+                if (bucket.number == bucketNumber) {
+                    summaries.add(bucket.summary.copy());
+                }
+            }
+        }
+
+        Map<String, long[]> estimates = SpaceSaving.merge(summaries);
+        if (app != null) {
+            estimates.keySet().removeIf(key -> !key.startsWith(app + KEY_SEPARATOR));
+        }
+        List<Map.Entry<String, long[]>> top = SpaceSaving.top(estimates, n + 1);
+        // Ключ точно в top-n, если его нижняя оценка не меньше верхней оценки (n+1)-го ключа
+        // и любого ключа, не попавшего в сводки
+        long rival = SpaceSaving.missingBound(summaries);
+        if (top.size() > n) {
+            rival = Math.max(rival, top.remove(n).getValue()[0]);
+        }
+        long threshold = rival;
+        return top.stream()
+                .map(entry -> {
+                    String[] appAndUri = entry.getKey().split(KEY_SEPARATOR, 2);
+                    long[] estimate = entry.getValue();
+                    return TopUriDto.builder()
+                            .app(appAndUri[0])
+                            .uri(appAndUri[1])
+                            .hits(estimate[0])
+                            .error(estimate[1])
+                            .guaranteed(estimate[0] - estimate[1] >= threshold)
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+
+    private long bucketOf(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / bucketSeconds;
+    }
+
+    private static class Bucket {
+        private long number = -1;
+        private SpaceSaving summary;
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.practicum.model.Hit;
+import ru.practicum.model.HyperLogLog;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupKey;
+import ru.practicum.model.RollupPlan;
+import ru.practicum.model.Stat;
+import ru.practicum.model.TimeRange;
+import ru.practicum.model.Visitor;
+import ru.practicum.repository.HitSketchRepository;
+import ru.practicum.repository.HitStore;
+
+import java.time.LocalDateTime;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Приближённый подсчёт уникальных ip по скетчам HyperLogLog за часы и дни. Скетчи ведутся, только если включён
+ * {@code stats.unique.approximate.enabled}: иначе запросы с approximate считаются точно. После включения
+ * оценки верны только для периода, за который скетчи уже записаны.
+ */
+@Service
+public class UniqueVisitorService {
+
+    private static final RollupGranularity[] SKETCH_LEVELS = {RollupGranularity.DAY, RollupGranularity.HOUR};
+
+    private final HitSketchRepository hitSketchRepository;
+    private final HitStore hitStore;
+    private final int precision;
+    private final boolean enabled;
+
+    public UniqueVisitorService(HitSketchRepository hitSketchRepository,
+                                HitStore hitStore,
+                                @Value("${stats.unique.relative-error:0.02}") double relativeError,
+                                @Value("${stats.unique.approximate.enabled:false}") boolean enabled) {
+        this.hitSketchRepository = hitSketchRepository;
+        this.hitStore = hitStore;
+        this.precision = HyperLogLog.precisionFor(relativeError);
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Дописывает хиты в скетчи. Блокируются только строки скетчей этой пачки, так что пачки с разными uri
+     * пишутся параллельно; строки новых скетчей сначала создаются пустыми, чтобы их тоже можно было заблокировать.
+     */
+    public void record(List<Hit> hits) {
+        if (!enabled) {
+            return;
+        }
+        Map<RollupKey, HyperLogLog> sketches = new TreeMap<>();
+        for (Hit hit : hits) {
+            for (RollupGranularity granularity : SKETCH_LEVELS) {
+                sketches.computeIfAbsent(RollupKey.of(granularity, hit), key -> new HyperLogLog(precision))
+                        .add(hit.getIp());
+            }
+        }
+
+        List<RollupKey> keys = new ArrayList<>(sketches.keySet());
+        hitSketchRepository.insertMissing(keys, new HyperLogLog(precision).toBytes());
+        Map<RollupKey, byte[]> stored = hitSketchRepository.findByKeysForUpdate(keys);
+        List<Map.Entry<RollupKey, byte[]>> updates = new ArrayList<>();
+        sketches.forEach((key, sketch) -> {
+            byte[] existing = stored.get(key);
+            byte[] merged = existing != null ? HyperLogLog.fromBytes(existing).union(sketch).toBytes() : sketch.toBytes();
+            if (!Arrays.equals(existing, merged)) {
+                updates.add(new AbstractMap.SimpleEntry<>(key, merged));
+            }
+        });
+        hitSketchRepository.update(updates);
+    }
+
+    public List<Stat> estimateUniqueHits(LocalDateTime start, LocalDateTime end, String[] uris) {
+        RollupPlan plan = RollupPlan.of(start, end.plusNanos(1000), SKETCH_LEVELS);
+        Map<String, Map<String, HyperLogLog>> sketchesByAppAndUri = new HashMap<>();
+
+        hitSketchRepository.forEachSketch(plan.getBuckets(), uris, (app, uri, bytes) ->
+                sketchesByAppAndUri.computeIfAbsent(app, key -> new HashMap<>())
+                        .merge(uri, HyperLogLog.fromBytes(bytes), HyperLogLog::union));
+        for (TimeRange range : plan.getRawRanges()) {
+            for (Visitor visitor : hitStore.findVisitors(range.getFrom(), range.getTo(), uris)) {
+                sketchesByAppAndUri.computeIfAbsent(visitor.getApp(), key -> new HashMap<>())
+                        .computeIfAbsent(visitor.getUri(), key -> new HyperLogLog(precision))
+                        .add(visitor.getIp());
+            }
+        }
+
+        List<Stat> stats = new ArrayList<>();
+        sketchesByAppAndUri.forEach((app, sketchesByUri) ->
+                sketchesByUri.forEach((uri, sketch) -> stats.add(new Stat(app, uri, sketch.estimate()))));
+        stats.sort(Comparator.comparing(Stat::getHits).reversed());
+        return stats;
+    }
+}
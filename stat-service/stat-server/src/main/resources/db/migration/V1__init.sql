@@ -0,0 +1,26 @@
+CREATE TABLE IF NOT EXISTS statistics (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  app VARCHAR(255) NOT NULL,
+  uri VARCHAR(255) NOT NULL,
+  ip VARCHAR(40) NOT NULL,
+  timestamp TIMESTAMP WITHOUT TIME ZONE,
+  CONSTRAINT pk_stat PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS hit_rollups (
+  granularity VARCHAR(10) NOT NULL,
+  bucket_start TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  app VARCHAR(255) NOT NULL,
+  uri VARCHAR(255) NOT NULL,
+  hits BIGINT NOT NULL,
+  CONSTRAINT pk_hit_rollup PRIMARY KEY (granularity, bucket_start, app, uri)
+);
+
+CREATE TABLE IF NOT EXISTS hit_sketches (
+  granularity VARCHAR(10) NOT NULL,
+  bucket_start TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  app VARCHAR(255) NOT NULL,
+  uri VARCHAR(255) NOT NULL,
+  sketch BYTEA NOT NULL,
+  CONSTRAINT pk_hit_sketch PRIMARY KEY (granularity, bucket_start, app, uri)
+);
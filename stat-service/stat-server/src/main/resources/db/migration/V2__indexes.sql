@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS idx_statistics_uri_timestamp ON statistics (uri, timestamp) INCLUDE (app, ip);
+CREATE INDEX IF NOT EXISTS idx_statistics_timestamp ON statistics (timestamp) INCLUDE (app, uri, ip);
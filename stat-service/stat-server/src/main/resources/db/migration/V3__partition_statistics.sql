@@ -0,0 +1,43 @@
+DROP INDEX IF EXISTS idx_statistics_uri_timestamp;
+DROP INDEX IF EXISTS idx_statistics_timestamp;
+ALTER TABLE statistics RENAME TO statistics_legacy;
+ALTER TABLE statistics_legacy RENAME CONSTRAINT pk_stat TO pk_stat_legacy;
+
+CREATE SEQUENCE IF NOT EXISTS statistics_id_seq;
+
+CREATE TABLE statistics (
+  id BIGINT NOT NULL DEFAULT nextval('statistics_id_seq'),
+  app VARCHAR(255) NOT NULL,
+  uri VARCHAR(255) NOT NULL,
+  ip VARCHAR(40) NOT NULL,
+  timestamp TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  CONSTRAINT pk_stat PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+ALTER SEQUENCE statistics_id_seq OWNED BY statistics.id;
+
+CREATE TABLE statistics_default PARTITION OF statistics DEFAULT;
+
+CREATE INDEX IF NOT EXISTS idx_statistics_uri_timestamp ON statistics (uri, timestamp) INCLUDE (app, ip);
+CREATE INDEX IF NOT EXISTS idx_statistics_timestamp ON statistics (timestamp) INCLUDE (app, uri, ip);
+
+INSERT INTO statistics (id, app, uri, ip, timestamp)
+SELECT id, app, uri, ip, timestamp FROM statistics_legacy WHERE timestamp IS NOT NULL;
+
+-- Хиты без времени не попадают ни в одну секцию: сохраняем их отдельно, V7 переносит их в hit_dead_letters.
+CREATE TABLE statistics_untimed AS
+SELECT id, app, uri, ip FROM statistics_legacy WHERE timestamp IS NULL;
+
+DO $$
+DECLARE
+  untimed BIGINT;
+BEGIN
+  SELECT COUNT(*) INTO untimed FROM statistics_untimed;
+  IF untimed > 0 THEN
+    RAISE WARNING '% хитов без времени не перенесены в секции statistics и сохранены отдельно', untimed;
+  END IF;
+END $$;
+
+SELECT setval('statistics_id_seq', COALESCE((SELECT MAX(id) FROM statistics), 0) + 1, false);
+
+DROP TABLE statistics_legacy;
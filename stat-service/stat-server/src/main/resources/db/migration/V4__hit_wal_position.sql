@@ -0,0 +1,7 @@
+CREATE TABLE IF NOT EXISTS hit_wal_position (
+  id SMALLINT NOT NULL,
+  position BIGINT NOT NULL,
+  CONSTRAINT pk_hit_wal_position PRIMARY KEY (id)
+);
+
+INSERT INTO hit_wal_position (id, position) VALUES (1, 0) ON CONFLICT (id) DO NOTHING;
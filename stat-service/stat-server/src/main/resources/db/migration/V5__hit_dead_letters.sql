@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS hit_dead_letters (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  app TEXT,
+  uri TEXT,
+  ip TEXT,
+  timestamp TIMESTAMP WITHOUT TIME ZONE,
+  wal_position BIGINT NOT NULL,
+  error TEXT NOT NULL,
+  created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  CONSTRAINT pk_hit_dead_letter PRIMARY KEY (id)
+);
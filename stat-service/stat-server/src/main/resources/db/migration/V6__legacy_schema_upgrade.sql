@@ -0,0 +1,26 @@
+-- Базы, созданные ещё schema.sql и размеченные Flyway как версия 1, пропустили V1__init.sql.
+-- Создаём недостающие таблицы и строим агрегаты по уже накопленным хитам; существующие агрегаты не меняются.
+CREATE TABLE IF NOT EXISTS hit_rollups (
+  granularity VARCHAR(10) NOT NULL,
+  bucket_start TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  app VARCHAR(255) NOT NULL,
+  uri VARCHAR(255) NOT NULL,
+  hits BIGINT NOT NULL,
+  CONSTRAINT pk_hit_rollup PRIMARY KEY (granularity, bucket_start, app, uri)
+);
+
+CREATE TABLE IF NOT EXISTS hit_sketches (
+  granularity VARCHAR(10) NOT NULL,
+  bucket_start TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  app VARCHAR(255) NOT NULL,
+  uri VARCHAR(255) NOT NULL,
+  sketch BYTEA NOT NULL,
+  CONSTRAINT pk_hit_sketch PRIMARY KEY (granularity, bucket_start, app, uri)
+);
+
+INSERT INTO hit_rollups (granularity, bucket_start, app, uri, hits)
+SELECT g.granularity, date_trunc(g.unit, s.timestamp), s.app, s.uri, COUNT(*)
+FROM statistics s
+CROSS JOIN (VALUES ('DAY', 'day'), ('HOUR', 'hour'), ('MINUTE', 'minute')) AS g (granularity, unit)
+GROUP BY g.granularity, date_trunc(g.unit, s.timestamp), s.app, s.uri
+ON CONFLICT (granularity, bucket_start, app, uri) DO NOTHING;
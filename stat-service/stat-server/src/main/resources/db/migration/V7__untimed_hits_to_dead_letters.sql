@@ -0,0 +1,8 @@
+-- Хиты без времени, отложенные при секционировании statistics (V3), видны вместе с остальными
+-- отклонёнными хитами.
+INSERT INTO hit_dead_letters (app, uri, ip, timestamp, wal_position, error, created)
+SELECT app, uri, ip, NULL, 0, 'Хит без времени не перенесён при секционировании statistics', now()
+FROM statistics_untimed
+ORDER BY id;
+
+DROP TABLE statistics_untimed;
@@ -0,0 +1,50 @@
+package ru.practicum.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.service.StatService;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(StatController.class)
+class StatControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private StatService statService;
+
+    @Test
+    void hitWithoutAppIsRejected() throws Exception {
+        mockMvc.perform(post("/hit").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"uri\":\"/events/1\",\"ip\":\"10.0.0.1\",\"timestamp\":\"2024-01-01 10:00:00\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void hitsWithTooLongIpAreRejected() throws Exception {
+        mockMvc.perform(post("/hits").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"app\":\"ewm-main-service\",\"uri\":\"/events/1\",\"ip\":\"" + "1".repeat(41) +
+                                "\",\"timestamp\":\"2024-01-01 10:00:00\"}]"))
+                .andExpect(status().isBadRequest());
+
+        verify(statService, never()).addHits(anyList());
+    }
+
+    @Test
+    void validHitIsAccepted() throws Exception {
+        mockMvc.perform(post("/hit").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"app\":\"ewm-main-service\",\"uri\":\"/events/1\",\"ip\":\"10.0.0.1\"," +
+                                "\"timestamp\":\"2024-01-01 10:00:00\"}"))
+                .andExpect(status().isCreated());
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.model;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.HitDto;
+import ru.practicum.HitFrame;
+import ru.practicum.exceptions.ValidationException;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HitMapperTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Test
+    void hitWithoutAppIsRejected() {
+        HitDto hitDto = HitDto.builder().uri("/events/1").ip("10.0.0.1").timestamp(NOW).build();
+
+        assertThatThrownBy(() -> HitMapper.toHit(hitDto)).isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void fieldsLongerThanColumnsAreRejected() {
+        HitFrame longUri = new HitFrame("ewm-main-service", "/" + "a".repeat(HitDto.MAX_URI_LENGTH), "10.0.0.1",
+                System.currentTimeMillis());
+        HitFrame longIp = new HitFrame("ewm-main-service", "/events/1", "1".repeat(HitDto.MAX_IP_LENGTH + 1),
+                System.currentTimeMillis());
+
+        assertThatThrownBy(() -> HitMapper.toHit(longUri)).isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> HitMapper.toHit(longIp)).isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void validHitIsMapped() {
+        HitDto hitDto = HitDto.builder().app("ewm-main-service").uri("/events/1").ip("10.0.0.1").timestamp(NOW)
+                .build();
+
+        Hit hit = HitMapper.toHit(hitDto);
+
+        assertThat(HitMapper.validate(hit)).isNull();
+        assertThat(hit.getTimestamp()).isEqualTo(NOW);
+    }
+}
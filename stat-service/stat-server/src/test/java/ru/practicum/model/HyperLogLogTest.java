@@ -0,0 +1,48 @@
+package ru.practicum.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HyperLogLogTest {
+
+    private static final int PRECISION = 14;
+
+    @Test
+    void smallSketchIsStoredSparse() {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        sketch.add("192.168.0.1");
+
+        byte[] bytes = sketch.toBytes();
+
+        assertThat(bytes).hasSize(4);
+        assertThat(HyperLogLog.fromBytes(bytes).toBytes()).isEqualTo(bytes);
+        assertThat(HyperLogLog.fromBytes(bytes).estimate()).isEqualTo(1);
+    }
+
+    @Test
+    void largeSketchIsStoredDenseAndRoundTrips() {
+        HyperLogLog sketch = filled(0, 100_000);
+
+        byte[] bytes = sketch.toBytes();
+
+        assertThat(bytes).hasSize(1 + (1 << PRECISION));
+        assertThat(HyperLogLog.fromBytes(bytes).estimate()).isEqualTo(sketch.estimate());
+    }
+
+    @Test
+    void unionOfSparseAndDenseMatchesSingleSketch() {
+        HyperLogLog sparse = HyperLogLog.fromBytes(filled(0, 100).toBytes());
+        HyperLogLog dense = HyperLogLog.fromBytes(filled(100, 100_000).toBytes());
+
+        assertThat(sparse.union(dense).estimate()).isEqualTo(filled(0, 100_000).estimate());
+    }
+
+    private static HyperLogLog filled(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        for (int i = from; i < to; i++) {
+            sketch.add("10.0." + (i >> 8) + "." + (i & 0xFF));
+        }
+        return sketch;
+    }
+}
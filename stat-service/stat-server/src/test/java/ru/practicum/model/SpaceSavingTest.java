@@ -0,0 +1,102 @@
+package ru.practicum.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingTest {
+
+    private static final int KEYS = 5_000;
+    private static final int HITS = 300_000;
+    private static final int SUMMARIES = 12;
+    private static final int CAPACITY = 200;
+    private static final int TOP = 10;
+
+    @Test
+    void singleSummaryOverestimatesByAtMostTotalOverCapacity() {
+        Map<String, Long> exact = new HashMap<>();
+        SpaceSaving summary = new SpaceSaving(CAPACITY);
+        zipf(new Random(7)).limit(HITS).forEach(key -> {
+            summary.add(key, 1);
+            exact.merge(key, 1L, Long::sum);
+        });
+
+        Map<String, long[]> estimates = SpaceSaving.merge(List.of(summary));
+        long bound = summary.getTotal() / CAPACITY;
+        estimates.forEach((key, estimate) -> {
+            long count = exact.get(key);
+            assertThat(estimate[0]).isBetween(count, count + bound);
+            assertThat(estimate[0] - estimate[1]).isLessThanOrEqualTo(count);
+        });
+        exact.forEach((key, count) -> {
+            if (count > bound) {
+                assertThat(estimates).containsKey(key);
+            }
+        });
+    }
+
+    @Test
+    void mergedSummariesBoundExactCountsAndFindTopKeys() {
+        Map<String, Long> exact = new HashMap<>();
+        List<SpaceSaving> summaries = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < SUMMARIES; i++) {
+            SpaceSaving summary = new SpaceSaving(CAPACITY);
+            zipf(random).limit(HITS / SUMMARIES).forEach(key -> {
+                summary.add(key, 1);
+                exact.merge(key, 1L, Long::sum);
+            });
+            summaries.add(summary);
+        }
+
+        Map<String, long[]> estimates = SpaceSaving.merge(summaries);
+        estimates.forEach((key, estimate) -> {
+            long count = exact.get(key);
+            assertThat(estimate[0]).as("верхняя оценка %s", key).isGreaterThanOrEqualTo(count);
+            assertThat(estimate[0] - estimate[1]).as("нижняя оценка %s", key).isLessThanOrEqualTo(count);
+        });
+        long missing = SpaceSaving.missingBound(summaries);
+        exact.forEach((key, count) -> {
+            if (!estimates.containsKey(key)) {
+                assertThat(count).isLessThanOrEqualTo(missing);
+            }
+        });
+
+        List<String> exactTop = exact.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(TOP)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        List<String> estimatedTop = SpaceSaving.top(estimates, TOP).stream()
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        assertThat(estimatedTop).containsExactlyElementsOf(exactTop);
+    }
+
+    /**
+     * Поток ключей с распределением Ципфа (s = 1.1) по KEYS ключам.
+     */
+    private static Stream<String> zipf(Random random) {
+        double[] cumulative = new double[KEYS];
+        double sum = 0;
+        for (int rank = 1; rank <= KEYS; rank++) {
+            sum += 1 / Math.pow(rank, 1.1);
+            cumulative[rank - 1] = sum;
+        }
+        double total = sum;
+        return Stream.generate(() -> {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            return "/events/" + (index >= 0 ? index : -index - 1);
+        });
+    }
+}
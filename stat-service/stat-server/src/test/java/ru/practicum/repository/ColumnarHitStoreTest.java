@@ -0,0 +1,47 @@
+package ru.practicum.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practicum.model.Hit;
+import ru.practicum.model.Stat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnarHitStoreTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void deleteBeforeTrimsSegmentsAndKeepsWalPosition() throws Exception {
+        ColumnarHitStore store = open();
+        store.append(List.of(hit(DAY.minusHours(1)), hit(DAY.minusHours(2))), 10);
+        store.append(List.of(hit(DAY.minusHours(3)), hit(DAY.plusHours(1))), 20);
+
+        store.deleteBefore(DAY);
+        store.close();
+        ColumnarHitStore reopened = open();
+
+        List<Stat> stats = reopened.countHits(DAY.minusDays(1), DAY.plusDays(1), null);
+        assertThat(stats).extracting(Stat::getHits).containsExactly(1L);
+        assertThat(reopened.getAppliedPosition()).isEqualTo(20);
+        reopened.close();
+    }
+
+    private ColumnarHitStore open() throws IOException {
+        ColumnarHitStore store = new ColumnarHitStore(directory.toString(), 16, 1_000_000);
+        store.open();
+        return store;
+    }
+
+    private static Hit hit(LocalDateTime timestamp) {
+        return Hit.builder().app("ewm-main-service").uri("/events/1").ip("10.0.0.1").timestamp(timestamp).build();
+    }
+}
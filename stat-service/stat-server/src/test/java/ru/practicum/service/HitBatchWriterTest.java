@@ -0,0 +1,67 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import ru.practicum.model.Hit;
+import ru.practicum.repository.HitDeadLetterRepository;
+import ru.practicum.repository.HitStore;
+import ru.practicum.repository.HitWalPositionRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HitBatchWriterTest {
+
+    private static final long POSITION = 42;
+
+    private final HitStore hitStore = mock(HitStore.class);
+    private final TrendingUriService trendingUriService = mock(TrendingUriService.class);
+    private final HitWalPositionRepository hitWalPositionRepository = mock(HitWalPositionRepository.class);
+    private final HitBatchWriter writer = new HitBatchWriter(hitStore, mock(HitRollupService.class),
+            mock(UniqueVisitorService.class), trendingUriService, hitWalPositionRepository,
+            mock(HitDeadLetterRepository.class));
+
+    @BeforeEach
+    void begin() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void end() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void trendingSeesBatchOnceWhenStoreAppendFailsAfterCommit() {
+        List<Hit> hits = List.of(Hit.builder().app("ewm-main-service").uri("/events/1").ip("10.0.0.1")
+                .timestamp(LocalDateTime.now()).build());
+        when(hitWalPositionRepository.advance(POSITION)).thenReturn(true, false);
+        doThrow(new IllegalStateException("disk full")).doNothing().when(hitStore).append(hits, POSITION);
+
+        writer.write(hits, POSITION);
+        assertThatThrownBy(HitBatchWriterTest::commit).isInstanceOf(IllegalStateException.class);
+        writer.write(hits, POSITION);
+        commit();
+
+        verify(trendingUriService).record(hits);
+        verify(hitStore, times(2)).append(hits, POSITION);
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.exceptions.IngestionOverloadedException;
+import ru.practicum.exceptions.ValidationException;
+import ru.practicum.model.Hit;
+import ru.practicum.repository.HitWriteAheadLog;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class HitIngestionQueueTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final HitBatchWriter hitBatchWriter = mock(HitBatchWriter.class);
+    private final HitIngestionQueue queue = new HitIngestionQueue(hitBatchWriter,
+            new HitWriteAheadLog(false, "unused", 1024, false), new SimpleMeterRegistry(),
+            100, 10, 1, 100, 1000, 1000, 1, 1, MAX_ATTEMPTS);
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        queue.stop();
+    }
+
+    @Test
+    void failingBatchIsDeadLetteredAndIngestionResumes() {
+        doThrow(new IllegalStateException("value too long")).when(hitBatchWriter).write(anyList(), anyLong());
+        queue.start();
+
+        queue.enqueue(hit());
+
+        verify(hitBatchWriter, timeout(2000).times(MAX_ATTEMPTS)).write(anyList(), eq(0L));
+        verify(hitBatchWriter, timeout(2000)).writeDeadLetters(anyList(), eq(0L), eq("value too long"), eq(true));
+        queue.awaitPersisted();
+        queue.enqueue(hit());
+    }
+
+    @Test
+    void ingestionStaysStalledWhileBatchCannotBeDeadLettered() {
+        doThrow(new IllegalStateException("connection refused")).when(hitBatchWriter).write(anyList(), anyLong());
+        doThrow(new IllegalStateException("connection refused")).when(hitBatchWriter)
+                .writeDeadLetters(anyList(), anyLong(), anyString(), eq(false));
+        doThrow(new IllegalStateException("connection refused")).when(hitBatchWriter)
+                .writeDeadLetters(anyList(), anyLong(), anyString(), eq(true));
+        queue.start();
+
+        queue.enqueue(hit());
+
+        verify(hitBatchWriter, timeout(2000).atLeastOnce())
+                .writeDeadLetters(anyList(), eq(0L), anyString(), eq(false));
+        assertThatThrownBy(() -> queue.enqueue(hit())).isInstanceOf(IngestionOverloadedException.class);
+    }
+
+    @Test
+    void batchIsWrittenAsOneBatchOrRejectedWhole() {
+        queue.start();
+
+        queue.enqueueAll(List.of(hit(), hit(), hit()));
+
+        verify(hitBatchWriter, timeout(2000)).write(argThat(hits -> hits.size() == 3), eq(0L));
+        assertThatThrownBy(() -> queue.enqueueAll(Collections.nCopies(101, hit())))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    private static Hit hit() {
+        return Hit.builder().app("ewm-main-service").uri("/events/1").ip("10.0.0.1").timestamp(LocalDateTime.now())
+                .build();
+    }
+}
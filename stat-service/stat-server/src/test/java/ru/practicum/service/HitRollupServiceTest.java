@@ -0,0 +1,75 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.model.Stat;
+import ru.practicum.repository.HitRollupRepository;
+import ru.practicum.repository.HitStore;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HitRollupServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 10, 0, 30);
+    private static final LocalDateTime END = LocalDateTime.of(2024, 1, 3, 18, 45, 10);
+
+    private final HitRollupRepository hitRollupRepository = mock(HitRollupRepository.class);
+    private final HitStore hitStore = mock(HitStore.class);
+    private final HitRollupService service = new HitRollupService(hitRollupRepository, hitStore);
+
+    @Test
+    void streamedHitsMatchCountedHitsInOrder() {
+        Random random = new Random(7);
+        List<Stat> rollups = new ArrayList<>();
+        List<Stat> edges = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String uri = "/events/" + i;
+            if (random.nextInt(4) > 0) {
+                rollups.add(new Stat("ewm-main-service", uri, (long) random.nextInt(1000)));
+            }
+            if (random.nextInt(10) == 0) {
+                edges.add(new Stat("ewm-main-service", uri, (long) random.nextInt(50) + 1));
+            }
+        }
+        when(hitStore.countHits(any(), any(), isNull())).thenAnswer(invocation ->
+                ((LocalDateTime) invocation.getArgument(0)).isBefore(START.plusMinutes(1))
+                        ? edges.subList(0, edges.size() / 2)
+                        : edges.subList(edges.size() / 2, edges.size()));
+        when(hitRollupRepository.sumHits(anyList(), isNull())).thenReturn(rollups);
+        when(hitRollupRepository.sumHits(anyList(), any(String[].class))).thenAnswer(invocation -> {
+            Set<String> uris = Set.of((String[]) invocation.getArgument(1));
+            return rollups.stream().filter(stat -> uris.contains(stat.getUri())).collect(Collectors.toList());
+        });
+        when(hitRollupRepository.streamSums(anyList(), isNull())).thenAnswer(invocation ->
+                rollups.stream().sorted(Comparator.comparing(Stat::getHits).reversed()));
+
+        List<String> counted = describe(service.countHits(START, END, null).stream());
+        List<String> streamed;
+        try (Stream<Stat> stats = service.streamHits(START, END, null)) {
+            streamed = describe(stats);
+        }
+
+        assertThat(streamed).containsExactlyInAnyOrderElementsOf(counted);
+        List<Long> hits = streamed.stream().map(line -> Long.parseLong(line.split(" ")[1]))
+                .collect(Collectors.toList());
+        assertThat(hits).isSortedAccordingTo(Comparator.reverseOrder());
+    }
+
+    private static List<String> describe(Stream<Stat> stats) {
+        return stats.map(stat -> stat.getApp() + stat.getUri() + " " + stat.getHits())
+                .collect(Collectors.toList());
+    }
+}
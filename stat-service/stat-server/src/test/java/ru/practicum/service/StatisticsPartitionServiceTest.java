@@ -0,0 +1,42 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.repository.HitRollupRepository;
+import ru.practicum.repository.HitSketchRepository;
+import ru.practicum.repository.HitStore;
+import ru.practicum.repository.StatisticsPartitionRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StatisticsPartitionServiceTest {
+
+    private static final int RETENTION_DAYS = 30;
+
+    private final StatisticsPartitionRepository partitionRepository = mock(StatisticsPartitionRepository.class);
+    private final HitStore hitStore = mock(HitStore.class);
+    private final HitRollupRepository hitRollupRepository = mock(HitRollupRepository.class);
+    private final HitSketchRepository hitSketchRepository = mock(HitSketchRepository.class);
+    private final StatisticsPartitionService service = new StatisticsPartitionService(partitionRepository, hitStore,
+            hitRollupRepository, hitSketchRepository, 0, RETENTION_DAYS, RETENTION_DAYS, "");
+
+    @Test
+    void expiredDaysInDefaultPartitionAreSplitOutAndDropped() {
+        LocalDate retainFrom = LocalDate.now().minusDays(RETENTION_DAYS);
+        LocalDate expired = retainFrom.minusDays(3);
+        when(partitionRepository.findPartitionDays()).thenReturn(List.of());
+        when(partitionRepository.findDaysInDefaultPartition()).thenReturn(List.of(expired));
+
+        service.maintainPartitions();
+
+        verify(partitionRepository).createPartition(expired);
+        verify(partitionRepository).dropPartition(expired);
+        verify(hitStore).deleteBefore(retainFrom.atStartOfDay());
+        verify(hitRollupRepository).deleteBefore(retainFrom.atStartOfDay());
+        verify(hitSketchRepository).deleteBefore(retainFrom.atStartOfDay());
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.TopUriDto;
+import ru.practicum.exceptions.ValidationException;
+import ru.practicum.model.Hit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrendingUriServiceTest {
+
+    private static final int TOP = 5;
+
+    @Test
+    void topUrisReportBoundsThatContainExactCounts() {
+        TrendingUriService service = new TrendingUriService(300, "24h", 20);
+        Map<String, Long> exact = new HashMap<>();
+        Random random = new Random(1);
+        LocalDateTime now = LocalDateTime.now();
+        List<Hit> hits = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            // ранг r выпадает с вероятностью ~ 1 / r
+            String uri = "/events/" + (int) Math.floor(Math.pow(500, random.nextDouble()));
+            exact.merge(uri, 1L, Long::sum);
+            hits.add(Hit.builder().app("ewm-main-service").uri(uri).ip("10.0.0." + i % 250).timestamp(now).build());
+        }
+        service.record(hits);
+
+        List<TopUriDto> top = service.getTopUris("1h", TOP, null);
+
+        assertThat(top).hasSize(TOP);
+        for (TopUriDto dto : top) {
+            long count = exact.get(dto.getUri());
+            assertThat(count).as(dto.getUri()).isBetween(dto.getHits() - dto.getError(), dto.getHits());
+        }
+        List<String> exactTop = exact.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(TOP)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        assertThat(top).filteredOn(TopUriDto::isGuaranteed).isNotEmpty()
+                .allSatisfy(dto -> assertThat(exactTop).contains(dto.getUri()));
+    }
+
+    @Test
+    void windowLongerThanMaximumIsRejected() {
+        TrendingUriService service = new TrendingUriService(300, "1h", 20);
+
+        assertThatThrownBy(() -> service.getTopUris("2h", TOP, null)).isInstanceOf(ValidationException.class);
+    }
+}